@@ -0,0 +1,75 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookRequest;
+import com.bookcatalog.model.Book;
+
+import java.util.List;
+
+// Deterministic catalog-shaped fixtures shared by the suites
+public final class BenchmarkData {
+
+    public static final List<String> LANGUAGES = List.of("en", "fr", "de", "fi", "nl", "it", "es", "pt");
+    private static final String[] WORDS = {
+            "love", "war", "history", "adventure", "sea", "house", "garden", "night", "letters", "journey",
+            "king", "river", "mystery", "poems", "stories", "island", "city", "winter", "children", "science"};
+
+    private BenchmarkData() {}
+
+    public static String title(int i) {
+        return capitalize(word(i)) + " and the " + capitalize(word(i / 7 + 3)) + " of " + capitalize(word(i / 49 + 5));
+    }
+
+    public static final int AUTHORS = 25_000;
+
+    // AUTHORS distinct names, each shared by many books
+    public static String author(int i) {
+        int author = Math.floorMod(i, AUTHORS);
+        return "Author" + author + ", " + capitalize(word(author));
+    }
+
+    public static String subject(int i) {
+        return capitalize(word(i)) + " -- " + capitalize(word(i / 3 + 1)) + " -- Fiction";
+    }
+
+    public static int downloads(int i) {
+        // Long-tailed like the real catalog: few books with many downloads
+        return (int) (100_000 / (1 + (i % 5_000)));
+    }
+
+    public static Book book(int i) {
+        Book book = new Book();
+        book.setTitle(title(i));
+        book.setAuthors(List.of(author(i), author(i + 1)));
+        book.setSubjects(List.of(subject(i), subject(i + 1), subject(i + 2)));
+        book.setBookshelves(List.of("Category: " + capitalize(word(i + 4))));
+        book.setGutenbergId(i + 1);
+        book.setLanguage(LANGUAGES.get(i % LANGUAGES.size()));
+        book.setDownloadCount(downloads(i));
+        book.setMediaType("Text");
+        book.setCoverUrl("https://www.gutenberg.org/cache/epub/" + (i + 1) + "/pg" + (i + 1) + ".cover.medium.jpg");
+        return book;
+    }
+
+    public static BookRequest request(int i) {
+        Book book = book(i);
+        BookRequest request = new BookRequest();
+        request.setTitle(book.getTitle());
+        request.setAuthors(book.getAuthors());
+        request.setSubjects(book.getSubjects());
+        request.setBookshelves(book.getBookshelves());
+        request.setGutenbergId(book.getGutenbergId());
+        request.setLanguage(book.getLanguage());
+        request.setDownloadCount(book.getDownloadCount());
+        request.setMediaType(book.getMediaType());
+        request.setCoverUrl(book.getCoverUrl());
+        return request;
+    }
+
+    private static String word(int i) {
+        return WORDS[Math.floorMod(i, WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
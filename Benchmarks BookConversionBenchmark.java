@@ -0,0 +1,43 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.benchmarks.BenchmarkData;
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.BookRequest;
+import com.bookcatalog.model.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping done on every read and write of a book
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookConversionBenchmark {
+
+    private BookService bookService;
+    private Book book;
+    private BookRequest request;
+
+    @Setup
+    public void setUp() {
+        // Neither mapping touches the collaborators
+        bookService = new BookService(null, null, null, null, null, null, null, null, null);
+        book = BenchmarkData.book(42);
+        request = BenchmarkData.request(42);
+    }
+
+    @Benchmark
+    public BookDTO convertToDTO() {
+        return bookService.convertToDTO(book);
+    }
+
+    @Benchmark
+    public Book updateEntityFromRequest() {
+        Book target = new Book();
+        bookService.updateEntityFromRequest(target, request);
+        return target;
+    }
+}
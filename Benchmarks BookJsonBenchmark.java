@@ -0,0 +1,58 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// JSON serialization of a page of books as written by the list and search endpoints
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookJsonBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    // Configured like Spring Boot's ObjectMapper
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private List<BookDTO> books;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        books = IntStream.range(0, pageSize)
+                .mapToObj(i -> {
+                    var book = BenchmarkData.book(i);
+                    BookDTO dto = new BookDTO();
+                    dto.setId((long) i + 1);
+                    dto.setTitle(book.getTitle());
+                    dto.setAuthors(book.getAuthors());
+                    dto.setSubjects(book.getSubjects());
+                    dto.setBookshelves(book.getBookshelves());
+                    dto.setGutenbergId(book.getGutenbergId());
+                    dto.setLanguage(book.getLanguage());
+                    dto.setDownloadCount(book.getDownloadCount());
+                    dto.setMediaType(book.getMediaType());
+                    dto.setCoverUrl(book.getCoverUrl());
+                    dto.setCreatedAt(createdAt);
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeBooks() throws Exception {
+        return objectMapper.writeValueAsBytes(books);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.BookCatalogApplication;
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.service.BookService;
+import com.bookcatalog.service.CatalogIndexer;
+import com.bookcatalog.service.PopularBooksIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The service paths behind /api/books/search/author (prefix match on authors.name_lower) and
+// /api/books/popular (the PopularBooksIndex ranking plus one batched load), over the same seeded
+// H2 catalog as BookRepositoryBenchmark. The indexes are rebuilt once the rows are in.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BookReadPathBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"10000", "100000", "1000000"})
+        public int rows;
+
+        private ConfigurableApplicationContext context;
+        private BookService bookService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws InterruptedException {
+            context = new SpringApplicationBuilder(BookCatalogApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(
+                            "spring.datasource.url=jdbc:h2:mem:read-path-" + rows + ";DB_CLOSE_DELAY=-1",
+                            "spring.jpa.show-sql=false",
+                            "gutenberg.sync.cron=-",
+                            "logging.level.root=WARN")
+                    .run();
+            bookService = context.getBean(BookService.class);
+            PopularBooksIndex popularBooksIndex = context.getBean(PopularBooksIndex.class);
+            // Let the startup build over the empty table finish before rebuilding over the seeded one
+            while (!popularBooksIndex.isReady()) {
+                Thread.sleep(10);
+            }
+            BookRepositoryBenchmark.seed(context.getBean(JdbcTemplate.class), rows);
+            context.getBean(CatalogIndexer.class).rebuild();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    // A selective prefix (11 authors) and a broad one (111 authors). Both only match names below
+    // Author10000, which every size seeds, so the counts are the same at 10k, 100k and 1M rows.
+    @State(Scope.Benchmark)
+    public static class AuthorQuery {
+
+        @Param({"author567", "author56"})
+        public String prefix;
+    }
+
+    @Benchmark
+    public List<BookDTO> searchBooksByAuthor(Catalog catalog, AuthorQuery query) {
+        return catalog.bookService.searchBooksByAuthor(query.prefix);
+    }
+
+    @Benchmark
+    public List<BookDTO> popularBooks(Catalog catalog) {
+        return catalog.bookService.getPopularBooks(1000, 50);
+    }
+}
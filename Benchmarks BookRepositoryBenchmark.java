@@ -0,0 +1,126 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.BookCatalogApplication;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.repository.BookRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The LIKE search fallback and the popular-books query, which serve those endpoints only until the
+// in-memory indexes are built, against an H2 catalog seeded with JDBC batches. BookReadPathBenchmark
+// covers what the endpoints use afterwards.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookRepositoryBenchmark {
+
+    private static final int SEED_CHUNK = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    // A selective author match and a common title word
+    @Param({"author1234", "river"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookCatalogApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "gutenberg.sync.cron=-",
+                        "logging.level.root=WARN")
+                .run();
+        bookRepository = context.getBean(BookRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        seed(context.getBean(JdbcTemplate.class), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> searchBooks() {
+        return readOnly.execute(status -> bookRepository.searchBooks(query));
+    }
+
+    @Benchmark
+    public List<Book> findPopularBooks() {
+        return readOnly.execute(status -> bookRepository.findPopularBooks(1000, PageRequest.of(0, 50)));
+    }
+
+    // Bypasses JPA so a million rows take seconds rather than minutes
+    static void seed(JdbcTemplate jdbc, int rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, Long> authorIds = new HashMap<>();
+        Map<String, Long> subjectIds = new HashMap<>();
+
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            List<Object[]> books = new ArrayList<>();
+            List<Object[]> authors = new ArrayList<>();
+            List<Object[]> bookAuthors = new ArrayList<>();
+            List<Object[]> subjects = new ArrayList<>();
+            List<Object[]> bookSubjects = new ArrayList<>();
+            List<Object[]> bookshelves = new ArrayList<>();
+
+            for (int i = from; i < Math.min(from + SEED_CHUNK, rows); i++) {
+                Book book = BenchmarkData.book(i);
+                long bookId = i + 1L;
+                books.add(new Object[]{bookId, book.getTitle(), book.getGutenbergId(), book.getLanguage(),
+                        book.getDownloadCount(), book.getMediaType(), book.getCoverUrl(), now, now});
+                addNames(bookId, book.getAuthors(), authorIds, authors, bookAuthors);
+                addNames(bookId, book.getSubjects(), subjectIds, subjects, bookSubjects);
+                book.getBookshelves().forEach(bookshelf -> bookshelves.add(new Object[]{bookId, bookshelf}));
+            }
+
+            jdbc.batchUpdate("INSERT INTO books (id, title, gutenberg_id, language, download_count, media_type, " +
+                    "cover_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", books);
+            jdbc.batchUpdate("INSERT INTO authors (id, name, name_lower) VALUES (?, ?, ?)", authors);
+            jdbc.batchUpdate("INSERT INTO book_authors (book_id, position, author_id) VALUES (?, ?, ?)", bookAuthors);
+            jdbc.batchUpdate("INSERT INTO subjects (id, name, name_lower) VALUES (?, ?, ?)", subjects);
+            jdbc.batchUpdate("INSERT INTO book_subjects (book_id, position, subject_id) VALUES (?, ?, ?)", bookSubjects);
+            jdbc.batchUpdate("INSERT INTO book_bookshelves (book_id, bookshelf) VALUES (?, ?)", bookshelves);
+        }
+    }
+
+    private static void addNames(long bookId, List<String> names, Map<String, Long> ids,
+                                 List<Object[]> newNames, List<Object[]> links) {
+        for (int position = 0; position < names.size(); position++) {
+            String name = names.get(position);
+            Long id = ids.get(name);
+            if (id == null) {
+                id = ids.size() + 1L;
+                ids.put(name, id);
+                newNames.add(new Object[]{id, name, name.toLowerCase(Locale.ROOT)});
+            }
+            links.add(new Object[]{bookId, position, id});
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.service.BookSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Ranked lookups against a search index over generated titles. Besides the 20 words of the
+// BenchmarkData titles, every title carries two words from a vocabulary of VOCABULARY "lexemeN"
+// terms, so a lexeme matches about 2 * books / VOCABULARY books, a title word one in seven, and
+// a lexeme prefix expands to up to 11,111 terms.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 100_000;
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    // Single rare term, single common term, AND of both, a rare term with a 111-term prefix,
+    // and a common term with an 11,111-term prefix
+    @Param({"lexeme4711", "mystery", "mystery lexeme4711", "lexeme4711 lexeme47", "mystery lexeme4"})
+    public String query;
+
+    private BookSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new BookSearchIndex();
+        for (int i = 0; i < books; i++) {
+            BookDTO book = new BookDTO((long) i + 1, title(i), List.of(BenchmarkData.author(i)), i + 1);
+            book.setDownloadCount(BenchmarkData.downloads(i));
+            index.index(book);
+        }
+        index.markReady();
+        System.out.printf("%n%d books, \"%s\" matches %d%n", books, query, index.matchingBookIds(query).length);
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 20);
+    }
+
+    private static String title(int i) {
+        return BenchmarkData.title(i) + " lexeme" + Math.floorMod(i * 7919L, VOCABULARY)
+                + " lexeme" + Math.floorMod(i * 104_729L + 13, VOCABULARY);
+    }
+}
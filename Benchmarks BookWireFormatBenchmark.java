@@ -0,0 +1,99 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+// CPU per response and bytes on the wire for each representation of a page of books.
+// "bytes" is the encoded size of one response, reported next to the time per operation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookWireFormatBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private final ObjectMapper json = mapper(new ObjectMapper());
+    private final ObjectMapper smile = mapper(new ObjectMapper(new SmileFactory()));
+    private final ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()));
+    private List<BookDTO> books;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        books = IntStream.range(0, pageSize)
+                .mapToObj(i -> {
+                    var book = BenchmarkData.book(i);
+                    BookDTO dto = new BookDTO();
+                    dto.setId((long) i + 1);
+                    dto.setTitle(book.getTitle());
+                    dto.setAuthors(book.getAuthors());
+                    dto.setSubjects(book.getSubjects());
+                    dto.setBookshelves(book.getBookshelves());
+                    dto.setGutenbergId(book.getGutenbergId());
+                    dto.setLanguage(book.getLanguage());
+                    dto.setDownloadCount(book.getDownloadCount());
+                    dto.setMediaType(book.getMediaType());
+                    dto.setCoverUrl(book.getCoverUrl());
+                    dto.setCreatedAt(timestamp);
+                    dto.setUpdatedAt(timestamp);
+                    return dto;
+                })
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] json(Size size) throws IOException {
+        return record(size, json.writeValueAsBytes(books));
+    }
+
+    @Benchmark
+    public byte[] jsonGzip(Size size) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            json.writeValue(gzip, books);
+        }
+        return record(size, out.toByteArray());
+    }
+
+    @Benchmark
+    public byte[] smile(Size size) throws IOException {
+        return record(size, smile.writeValueAsBytes(books));
+    }
+
+    @Benchmark
+    public byte[] cbor(Size size) throws IOException {
+        return record(size, cbor.writeValueAsBytes(books));
+    }
+
+    // The last size wins rather than summing, so the counter reads as bytes per response
+    private static byte[] record(Size size, byte[] encoded) {
+        size.bytes = encoded.length;
+        return encoded;
+    }
+
+    private static ObjectMapper mapper(ObjectMapper mapper) {
+        return mapper.findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
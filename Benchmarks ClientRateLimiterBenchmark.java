@@ -0,0 +1,51 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.config.ClientRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Admission cost of the per-client limiter under 8 concurrent threads. With one client every thread
+// races on the same CAS; with 1024 the clients spread over the map. The limits are set so the
+// "admitted" limiter always has tokens and the "rejected" one never does after the first burst.
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ClientRateLimiterBenchmark {
+
+    @Param({"1", "1024"})
+    public int clients;
+
+    private ClientRateLimiter admitting;
+    private ClientRateLimiter rejecting;
+    private String[] clientKeys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        admitting = new ClientRateLimiter(1e12, 1_000_000, 100_000);
+        rejecting = new ClientRateLimiter(0.001, 1, 100_000);
+        clientKeys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientKeys[i] = "10.0." + (i >> 8) + "." + (i & 255);
+        }
+    }
+
+    @Benchmark
+    public long admitted(Cursor cursor) {
+        return admitting.acquire(clientKeys[cursor.next++ % clients], 0);
+    }
+
+    @Benchmark
+    public long rejected(Cursor cursor) {
+        return rejecting.acquire(clientKeys[cursor.next++ % clients], 0);
+    }
+}
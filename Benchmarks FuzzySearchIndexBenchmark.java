@@ -0,0 +1,49 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.IndexStatsDTO;
+import com.bookcatalog.service.FuzzySearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Typo-tolerant lookups against a fuzzy index built from BenchmarkData books. The fixture titles
+// draw on 20 words only, so title queries are a worst case: every match covers many books.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FuzzySearchIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    // A misspelled author, a misspelled title word, and both together
+    @Param({"autor1234", "mystrey", "adventrue autor1234"})
+    public String query;
+
+    private FuzzySearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new FuzzySearchIndex();
+        for (int i = 0; i < books; i++) {
+            BookDTO book = new BookDTO((long) i + 1, BenchmarkData.title(i),
+                    List.of(BenchmarkData.author(i), BenchmarkData.author(i + 1)), i + 1);
+            book.setDownloadCount(BenchmarkData.downloads(i));
+            index.index(book);
+        }
+        index.markReady();
+        IndexStatsDTO stats = index.stats();
+        System.out.printf("%n%d books, %d terms, %d trigrams, ~%d MB%n",
+                stats.getBooks(), stats.getTerms(), stats.getTrigrams(), stats.getEstimatedBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(query, 20);
+    }
+}
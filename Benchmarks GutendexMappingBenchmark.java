@@ -0,0 +1,109 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.GutendexBook;
+import com.bookcatalog.dto.GutendexPage;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.service.GutenbergService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Decoding a recorded gutendex page and mapping its results through GutenbergService.mapToBook,
+// against the Map-based decoding and cast-walking mapper it replaced as a baseline (run with
+// -prof gc to compare the allocation per page)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GutendexMappingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private GutenbergService gutenbergService;
+    private byte[] recordedPage;
+    private GutendexPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        // mapToBook uses neither the client nor the caches
+        gutenbergService = new GutenbergService(null, null, "https://gutendex.com/books",
+                1, Duration.ofMinutes(1), 1, Duration.ofMinutes(1));
+        try (InputStream in = getClass().getResourceAsStream("/gutendex-page.json")) {
+            recordedPage = in.readAllBytes();
+        }
+        page = objectMapper.readValue(recordedPage, GutendexPage.class);
+    }
+
+    @Benchmark
+    public GutendexPage decodePage() throws IOException {
+        return objectMapper.readValue(recordedPage, GutendexPage.class);
+    }
+
+    @Benchmark
+    public void mapToBook(Blackhole blackhole) {
+        for (GutendexBook result : page.results()) {
+            blackhole.consume(gutenbergService.mapToBook(result));
+        }
+    }
+
+    @Benchmark
+    public void decodeAndMap(Blackhole blackhole) throws IOException {
+        for (GutendexBook result : objectMapper.readValue(recordedPage, GutendexPage.class).results()) {
+            Book book = gutenbergService.mapToBook(result);
+            blackhole.consume(book);
+        }
+    }
+
+    @Benchmark
+    public Map<?, ?> decodePageAsMap() throws IOException {
+        return objectMapper.readValue(recordedPage, Map.class);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void decodeAndMapAsMap(Blackhole blackhole) throws IOException {
+        Map<String, Object> response = objectMapper.readValue(recordedPage, Map.class);
+        for (Map<String, Object> result : (List<Map<String, Object>>) response.get("results")) {
+            blackhole.consume(mapToBookFromMap(result));
+        }
+    }
+
+    // The mapper as it was before the typed records, except for its (String) cast of the languages
+    // list, which threw
+    @SuppressWarnings("unchecked")
+    private static Book mapToBookFromMap(Map<String, Object> bookData) {
+        Book book = new Book();
+        book.setGutenbergId((Integer) bookData.get("id"));
+        book.setTitle((String) bookData.get("title"));
+
+        List<Map<String, Object>> authors = (List<Map<String, Object>>) bookData.get("authors");
+        if (authors != null) {
+            List<String> authorNames = authors.stream()
+                    .map(author -> (String) author.get("name"))
+                    .collect(Collectors.toList());
+            book.setAuthors(authorNames);
+        }
+
+        book.setSubjects((List<String>) bookData.get("subjects"));
+        book.setBookshelves((List<String>) bookData.get("bookshelves"));
+
+        List<String> languages = (List<String>) bookData.get("languages");
+        book.setLanguage(languages != null && !languages.isEmpty() ? languages.get(0) : null);
+        book.setDownloadCount((Integer) bookData.get("download_count"));
+
+        Map<String, String> formats = (Map<String, String>) bookData.get("formats");
+        if (formats != null) {
+            book.setCoverUrl(formats.get("image/jpeg"));
+        }
+        return book;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookcatalog.benchmarks;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.SimilarIndexStatsDTO;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.service.SimilarBooksIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Similar-books lookups against an index built from BenchmarkData books. The fixture subjects all
+// end in "Fiction" and draw on 20 words only, so bands of common features are a worst case here.
+// The build itself is timed once per trial and printed with the index size.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SimilarBooksIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    private SimilarBooksIndex index;
+    private int updates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new SimilarBooksIndex(20);
+        for (int i = 0; i < books; i++) {
+            index.index(book(i, 0));
+        }
+        long start = System.nanoTime();
+        index.markReady();
+        SimilarIndexStatsDTO stats = index.stats();
+        System.out.printf("%n%d books, %d features, %d buckets, built in %d ms (%d ms in markReady), ~%d MB%n",
+                stats.getBooks(), stats.getFeatures(), stats.getBuckets(),
+                (System.nanoTime() - start) / 1_000_000, stats.getBuildMillis(), stats.getEstimatedBytes() >> 20);
+    }
+
+    @Benchmark
+    public List<Long> similar() {
+        return index.similar((long) ThreadLocalRandom.current().nextInt(books) + 1, 10).orElseThrow();
+    }
+
+    // A write that changes a book's subjects, then the read recomputing its stale list
+    @Benchmark
+    public List<Long> updateThenSimilar() {
+        int i = ThreadLocalRandom.current().nextInt(books);
+        index.index(book(i, ++updates));
+        return index.similar((long) i + 1, 10).orElseThrow();
+    }
+
+    // Revision 0 is the fixture book; later revisions replace its first subject
+    private static BookDTO book(int i, int revision) {
+        Book source = BenchmarkData.book(i);
+        BookDTO book = new BookDTO((long) i + 1, source.getTitle(), source.getAuthors(), source.getGutenbergId());
+        book.setSubjects(List.of(BenchmarkData.subject(i + revision), BenchmarkData.subject(i + 1),
+                BenchmarkData.subject(i + 2)));
+        book.setBookshelves(source.getBookshelves());
+        book.setDownloadCount(source.getDownloadCount());
+        return book;
+    }
+}
@@ -1,23 +1,32 @@
 package com.bookcatalog.dto;
 
+import com.bookcatalog.model.Author;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.model.Subject;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
+// Sizes match the columns, so an over-long value is rejected up front instead of failing the flush
 public class BookRequest {
     @NotBlank(message = "Title is mandatory")
+    @Size(max = Book.TITLE_LENGTH, message = "Title must be at most {max} characters")
     private String title;
 
-    private List<String> authors;
-    private List<String> subjects;
-    private List<String> bookshelves;
+    private List<@Size(max = Author.NAME_LENGTH, message = "Author names must be at most {max} characters") String> authors;
+    private List<@Size(max = Subject.NAME_LENGTH, message = "Subjects must be at most {max} characters") String> subjects;
+    private List<@Size(max = Book.BOOKSHELF_LENGTH, message = "Bookshelves must be at most {max} characters") String> bookshelves;
 
     @NotNull(message = "Gutenberg ID is mandatory")
     private Integer gutenbergId;
     
+    @Size(max = Book.CODE_LENGTH, message = "Language must be at most {max} characters")
     private String language;
     private Integer downloadCount;
+    @Size(max = Book.CODE_LENGTH, message = "Media type must be at most {max} characters")
     private String mediaType;
+    @Size(max = Book.COVER_URL_LENGTH, message = "Cover URL must be at most {max} characters")
     private String coverUrl;
 
     // Getters and Setters
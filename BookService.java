@@ -1,107 +1,410 @@
 package com.bookcatalog.service;
 
+import com.bookcatalog.dto.BatchItemResultDTO;
+import com.bookcatalog.dto.BookBatchUpdate;
 import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.BookFacetsDTO;
+import com.bookcatalog.dto.BookPage;
 import com.bookcatalog.dto.BookRequest;
+import com.bookcatalog.dto.BookSort;
+import com.bookcatalog.dto.CacheStatsDTO;
+import com.bookcatalog.dto.IndexStatsDTO;
+import com.bookcatalog.dto.SimilarIndexStatsDTO;
+import com.bookcatalog.model.Author;
 import com.bookcatalog.model.Book;
 import com.bookcatalog.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_FACET_VALUES = 100;
+    // Exported rows are converted in chunks matching the collection batch size, then detached,
+    // so the persistence context does not grow with the catalog
+    private static final int EXPORT_CHUNK_SIZE = 256;
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    
     private final BookRepository bookRepository;
+    private final CatalogNameService catalogNameService;
     private final GutenbergService gutenbergService;
+    private final BookSearchIndex searchIndex;
+    private final FacetIndex facetIndex;
+    private final PopularBooksIndex popularBooksIndex;
+    private final FuzzySearchIndex fuzzySearchIndex;
+    private final SimilarBooksIndex similarBooksIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
-    public BookService(BookRepository bookRepository, GutenbergService gutenbergService) {
+    public BookService(BookRepository bookRepository, CatalogNameService catalogNameService,
+                       GutenbergService gutenbergService, BookSearchIndex searchIndex, FacetIndex facetIndex,
+                       PopularBooksIndex popularBooksIndex, FuzzySearchIndex fuzzySearchIndex,
+                       SimilarBooksIndex similarBooksIndex, ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
+        this.catalogNameService = catalogNameService;
         this.gutenbergService = gutenbergService;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.popularBooksIndex = popularBooksIndex;
+        this.fuzzySearchIndex = fuzzySearchIndex;
+        this.similarBooksIndex = similarBooksIndex;
+        this.eventPublisher = eventPublisher;
     }
     
-    // Using streams for data transformation
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
+    // Keyset pagination: "after" is the nextCursor of the previous page
+    @Transactional(readOnly = true)
+    public BookPage getBooksPage(String after, int limit, BookSort sort) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to find out whether another page follows
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<Book> books = switch (sort) {
+            case ID -> bookRepository.findPageOrderById(after != null ? parseCursorId(after) : 0L, pageable);
+            case ID_DESC -> bookRepository.findPageOrderByIdDesc(
+                    after != null ? parseCursorId(after) : Long.MAX_VALUE, pageable);
+            case TITLE -> after == null
+                    ? bookRepository.findPageOrderByTitle("", 0L, pageable)
+                    : bookRepository.findPageOrderByTitle(cursorKey(after), cursorId(after), pageable);
+            case DOWNLOADS -> after == null
+                    ? bookRepository.findPageOrderByDownloads(Integer.MAX_VALUE, 0L, pageable)
+                    : bookRepository.findPageOrderByDownloads(
+                            Integer.parseInt(cursorKey(after)), cursorId(after), pageable);
+        };
+        
+        boolean hasMore = books.size() > pageSize;
+        List<BookDTO> items = books.stream()
+                .limit(pageSize)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        String nextCursor = hasMore ? toCursor(sort, items.get(items.size() - 1)) : null;
+        return new BookPage(items, pageSize, sort, nextCursor);
+    }
+    
+    // Streams the whole catalog in id order without holding it in memory
+    @Transactional(readOnly = true)
+    public void exportBooks(Consumer<BookDTO> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllOrderById()) {
+            List<Book> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+            books.forEach(book -> {
+                chunk.add(book);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    exportChunk(chunk, consumer);
+                }
+            });
+            exportChunk(chunk, consumer);
+        }
+    }
+    
+    private void exportChunk(List<Book> chunk, Consumer<BookDTO> consumer) {
+        // The first collection access batch-loads the collections of the whole chunk
+        chunk.forEach(book -> consumer.accept(convertToDTO(book)));
+        chunk.clear();
+        entityManager.clear();
     }
     
+    // Cached until the book is written (see BookCaches), misses included. sync loads the entry inside
+    // Caffeine's compute, which the after-commit eviction waits for: a read that started before the
+    // commit cannot store its stale DTO after the eviction
+    @Cacheable(cacheNames = BookCaches.BY_ID, sync = true)
+    @Transactional(readOnly = true)
     public Optional<BookDTO> getBookById(Long id) {
         return bookRepository.findById(id)
                 .map(this::convertToDTO);
     }
     
+    @Cacheable(cacheNames = BookCaches.BY_GUTENBERG_ID, sync = true)
+    @Transactional(readOnly = true)
     public Optional<BookDTO> getBookByGutenbergId(Integer gutenbergId) {
         return bookRepository.findByGutenbergId(gutenbergId)
                 .map(this::convertToDTO);
     }
     
+    // Duplicates are detected by the unique constraint on gutenberg_id, not by a read first
     @Transactional
     public BookDTO addBook(BookRequest bookRequest) {
-        // Check if book already exists by Gutenberg ID
-        bookRepository.findByGutenbergId(bookRequest.getGutenbergId())
-                .ifPresent(book -> {
-                    throw new IllegalArgumentException("Book with Gutenberg ID " + 
-                            bookRequest.getGutenbergId() + " already exists");
-                });
-        
         Book book = convertToEntity(bookRequest);
-        Book savedBook = bookRepository.save(book);
-        return convertToDTO(savedBook);
+        catalogNameService.resolve(List.of(book));
+        Book savedBook = saveAndFlush(book, "Book with Gutenberg ID " + bookRequest.getGutenbergId() + " already exists");
+        return publishCreated(convertToDTO(savedBook));
     }
     
+    // Persists already-fetched Gutenberg books in one transaction using JDBC batching
     @Transactional
-    public Optional<BookDTO> importBookFromGutenberg(Integer gutenbergId) {
-        return gutenbergService.getBookFromGutenberg(gutenbergId)
-                .map(gutenbergBook -> {
-                    // Check if already imported
-                    if (bookRepository.findByGutenbergId(gutenbergId).isPresent()) {
-                        throw new IllegalArgumentException("Book already imported");
-                    }
-                    
-                    Book savedBook = bookRepository.save(gutenbergBook);
-                    return convertToDTO(savedBook);
-                });
+    public int importBatch(List<Book> books) {
+        catalogNameService.resolve(books);
+        bookRepository.saveAll(books)
+                .forEach(savedBook -> publishCreated(convertToDTO(savedBook)));
+        return books.size();
     }
     
     @Transactional
     public Optional<BookDTO> updateBook(Long id, BookRequest bookRequest) {
         return bookRepository.findById(id)
                 .map(existingBook -> {
+                    // Names are resolved on a detached copy: querying while the managed book
+                    // holds unsaved placeholders would flush them
+                    Book changes = convertToEntity(bookRequest);
+                    catalogNameService.resolve(List.of(changes));
+                    Integer previousGutenbergId = existingBook.getGutenbergId();
                     updateEntityFromRequest(existingBook, bookRequest);
-                    Book updatedBook = bookRepository.save(existingBook);
-                    return convertToDTO(updatedBook);
+                    existingBook.setAuthorRefs(changes.getAuthorRefs());
+                    existingBook.setSubjectRefs(changes.getSubjectRefs());
+                    Book updatedBook = saveAndFlush(existingBook,
+                            "Book with Gutenberg ID " + bookRequest.getGutenbergId() + " already exists");
+                    BookDTO updated = convertToDTO(updatedBook);
+                    eventPublisher.publishEvent(BookChangedEvent.updated(previousGutenbergId, updated));
+                    return updated;
                 });
     }
     
+    // Applies fresh gutendex metadata to the stored copies of the same books. Only fields that differ
+    // are written (Book is @DynamicUpdate), unchanged books cause no UPDATE. Returns the changed count.
+    @Transactional
+    public int applyGutenbergChanges(List<Book> upstreamBooks) {
+        Map<Integer, Book> upstreamById = upstreamBooks.stream()
+                .collect(Collectors.toMap(Book::getGutenbergId, Function.identity(), (first, second) -> first));
+        List<Book> storedBooks = bookRepository.findByGutenbergIdIn(upstreamById.keySet());
+        
+        // Names are resolved on the unmanaged upstream copies before any stored book is touched
+        catalogNameService.resolve(storedBooks.stream()
+                .map(stored -> upstreamById.get(stored.getGutenbergId()))
+                .filter(upstream -> upstream.getTitle() != null)
+                .collect(Collectors.toList()));
+        
+        int changed = 0;
+        for (Book stored : storedBooks) {
+            Book upstream = upstreamById.get(stored.getGutenbergId());
+            if (upstream.getTitle() != null && copyChangedFields(upstream, stored)) {
+                eventPublisher.publishEvent(BookChangedEvent.updated(stored.getGutenbergId(), convertToDTO(stored)));
+                changed++;
+            }
+        }
+        return changed;
+    }
+    
     @Transactional
     public boolean deleteBook(Long id) {
-        return bookRepository.findById(id)
-                .map(book -> {
-                    bookRepository.delete(book);
-                    return true;
-                })
-                .orElse(false);
+        return "DELETED".equals(deleteBooks(List.of(id)).get(0).getStatus());
     }
     
-    // Using streams for search functionality
-    public List<BookDTO> searchBooks(String query) {
+    // Batch writes for BookBatchService. Each call is one transaction over an already validated
+    // chunk and returns one result per element, in order.
+    
+    // Duplicates against the table and within the chunk are found with one IN query
+    @Transactional
+    public List<BatchItemResultDTO> addBooks(List<BookRequest> requests) {
+        Set<Integer> existing = new HashSet<>(bookRepository.findExistingGutenbergIds(
+                requests.stream().map(BookRequest::getGutenbergId).collect(Collectors.toList())));
+        List<BatchItemResultDTO> results = new ArrayList<>(requests.size());
+        List<Book> books = new ArrayList<>();
+        List<BatchItemResultDTO> created = new ArrayList<>();
+        for (BookRequest request : requests) {
+            if (!existing.add(request.getGutenbergId())) {
+                results.add(new BatchItemResultDTO("DUPLICATE", null, request.getGutenbergId(),
+                        "Book with Gutenberg ID " + request.getGutenbergId() + " already exists"));
+                continue;
+            }
+            BatchItemResultDTO result = new BatchItemResultDTO("CREATED", null, request.getGutenbergId(), null);
+            books.add(convertToEntity(request));
+            created.add(result);
+            results.add(result);
+        }
+        
+        catalogNameService.resolve(books);
+        bookRepository.saveAll(books);
+        for (int i = 0; i < books.size(); i++) {
+            created.get(i).setId(books.get(i).getId());
+            publishCreated(convertToDTO(books.get(i)));
+        }
+        return results;
+    }
+    
+    @Transactional
+    public List<BatchItemResultDTO> updateBooks(List<BookBatchUpdate> updates) {
+        Map<Long, Book> booksById = bookRepository.findAllById(
+                        updates.stream().map(BookBatchUpdate::getId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // Gutenberg IDs that books move to must not belong to any other book
+        Set<Integer> moves = new HashSet<>();
+        for (BookBatchUpdate update : updates) {
+            Book book = booksById.get(update.getId());
+            if (book != null && !update.getBook().getGutenbergId().equals(book.getGutenbergId())) {
+                moves.add(update.getBook().getGutenbergId());
+            }
+        }
+        Set<Integer> taken = moves.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(bookRepository.findExistingGutenbergIds(moves));
+        
+        List<BatchItemResultDTO> results = new ArrayList<>(updates.size());
+        Map<BookBatchUpdate, Book> accepted = new LinkedHashMap<>();
+        Set<Long> seenIds = new HashSet<>();
+        for (BookBatchUpdate update : updates) {
+            Integer gutenbergId = update.getBook().getGutenbergId();
+            Book book = booksById.get(update.getId());
+            if (book == null) {
+                results.add(new BatchItemResultDTO("NOT_FOUND", update.getId(), gutenbergId, "Unknown book ID"));
+            } else if (!seenIds.add(update.getId())) {
+                results.add(new BatchItemResultDTO("DUPLICATE", update.getId(), gutenbergId,
+                        "Book ID appears more than once in the batch"));
+            } else if (!gutenbergId.equals(book.getGutenbergId()) && !taken.add(gutenbergId)) {
+                results.add(new BatchItemResultDTO("DUPLICATE", update.getId(), gutenbergId,
+                        "Book with Gutenberg ID " + gutenbergId + " already exists"));
+            } else {
+                results.add(new BatchItemResultDTO("UPDATED", update.getId(), gutenbergId, null));
+                accepted.put(update, convertToEntity(update.getBook()));
+            }
+        }
+        
+        // Names are resolved on the detached copies before any managed book is changed
+        catalogNameService.resolve(accepted.values());
+        accepted.forEach((update, changes) -> {
+            Book book = booksById.get(update.getId());
+            Integer previousGutenbergId = book.getGutenbergId();
+            updateEntityFromRequest(book, update.getBook());
+            book.setAuthorRefs(changes.getAuthorRefs());
+            book.setSubjectRefs(changes.getSubjectRefs());
+            eventPublisher.publishEvent(BookChangedEvent.updated(previousGutenbergId, convertToDTO(book)));
+        });
+        return results;
+    }
+    
+    // Bulk DELETE statements; only the ids and Gutenberg IDs are read, for the change events
+    @Transactional
+    public List<BatchItemResultDTO> deleteBooks(List<Long> ids) {
+        Map<Long, Integer> gutenbergIds = bookRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookRepository.BookKey::getId, BookRepository.BookKey::getGutenbergId));
+        if (!gutenbergIds.isEmpty()) {
+            Set<Long> found = gutenbergIds.keySet();
+            bookRepository.deleteAuthorLinks(found);
+            bookRepository.deleteSubjectLinks(found);
+            bookRepository.deleteBookshelves(found);
+            bookRepository.deleteByIds(found);
+        }
+        
+        List<BatchItemResultDTO> results = new ArrayList<>(ids.size());
+        Set<Long> deleted = new HashSet<>();
+        for (Long id : ids) {
+            Integer gutenbergId = gutenbergIds.get(id);
+            if (gutenbergId == null) {
+                results.add(new BatchItemResultDTO("NOT_FOUND", id, null, "Unknown book ID"));
+            } else if (!deleted.add(id)) {
+                results.add(new BatchItemResultDTO("DUPLICATE", id, gutenbergId,
+                        "Book ID appears more than once in the batch"));
+            } else {
+                results.add(new BatchItemResultDTO("DELETED", id, gutenbergId, null));
+                eventPublisher.publishEvent(BookChangedEvent.deleted(id, gutenbergId));
+            }
+        }
+        return results;
+    }
+    
+    // Served from the inverted index; falls back to the LIKE scan until the index is built
+    @Transactional(readOnly = true)
+    public List<BookDTO> searchBooks(String query, int limit) {
+        int maxResults = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (searchIndex.isReady()) {
+            return findAllInOrder(searchIndex.search(query, maxResults));
+        }
         return bookRepository.searchBooks(query).stream()
+                .limit(maxResults)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    // Typo-tolerant search over title and author terms, ranked by edit distance.
+    // Empty while the index is still being built; there is no database fallback for it.
+    @Transactional(readOnly = true)
+    public Optional<List<BookDTO>> fuzzySearchBooks(String query, int limit) {
+        if (!fuzzySearchIndex.isReady()) {
+            return Optional.empty();
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Optional.of(findAllInOrder(fuzzySearchIndex.search(query, maxResults)));
+    }
+    
+    public IndexStatsDTO getFuzzyIndexStats() {
+        return fuzzySearchIndex.stats();
+    }
+    
+    public boolean isSimilarBooksIndexReady() {
+        return similarBooksIndex.isReady();
+    }
+    
+    // Books sharing the most authors, subject headings and bookshelves with the given one, read
+    // from the precomputed neighbour lists. Empty when the book does not exist.
+    @Transactional(readOnly = true)
+    public Optional<List<BookDTO>> getSimilarBooks(Long id, int limit) {
+        int maxResults = Math.max(1, Math.min(limit, similarBooksIndex.getMaxNeighbours()));
+        return similarBooksIndex.similar(id, maxResults).map(this::findAllInOrder);
+    }
+    
+    public SimilarIndexStatsDTO getSimilarIndexStats() {
+        return similarBooksIndex.stats();
+    }
+    
+    // Top-K facet counts over the whole catalog, or over the books matching query.
+    // Empty while the in-memory indexes are still being built.
+    public Optional<BookFacetsDTO> getFacets(String query, int limit) {
+        if (!facetIndex.isReady() || !searchIndex.isReady()) {
+            return Optional.empty();
+        }
+        int topK = Math.max(1, Math.min(limit, MAX_FACET_VALUES));
+        if (query == null || query.isBlank()) {
+            return Optional.of(facetIndex.facets(topK));
+        }
+        return Optional.of(facetIndex.facets(searchIndex.matchingBookIds(query), topK));
+    }
+    
+    // Prefix match on author names, e.g. "dickens" or "dickens, ch"
+    @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByAuthor(String author) {
-        return bookRepository.findByAuthorsContainingIgnoreCase(author).stream()
+        if (author == null || author.isBlank()) {
+            return List.of();
+        }
+        return bookRepository.findByAuthorNamePrefix(escapeLike(Author.normalize(author))).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
-    public List<BookDTO> getPopularBooks(Integer minDownloads) {
-        return bookRepository.findPopularBooks(minDownloads != null ? minDownloads : 1000).stream()
+    // Read from the incrementally maintained popularity ranking instead of an ORDER BY over the table
+    @Transactional(readOnly = true)
+    public List<BookDTO> getPopularBooks(Integer minDownloads, int limit) {
+        int minimum = minDownloads != null ? minDownloads : 1000;
+        int maxResults = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (popularBooksIndex.isReady()) {
+            return findAllInOrder(popularBooksIndex.mostDownloaded(minimum, maxResults));
+        }
+        return bookRepository.findPopularBooks(minimum, PageRequest.of(0, maxResults)).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -112,20 +415,145 @@ public class BookService {
                 .collect(Collectors.toList());
     }
     
-    // Helper methods using method references
-    private BookDTO convertToDTO(Book book) {
+    public int streamGutenbergBooks(String query, String author, String title, String subject,
+                                    int maxResults, Consumer<BookDTO> consumer) {
+        return gutenbergService.streamSearchFromGutenberg(query, author, title, subject, maxResults,
+                book -> consumer.accept(convertToDTO(book)));
+    }
+    
+    public List<CacheStatsDTO> getGutenbergCacheStats() {
+        return gutenbergService.getCacheStats();
+    }
+    
+    // Loads the books for ranked ids in one query and keeps the ranking order
+    private List<BookDTO> findAllInOrder(List<Long> ids) {
+        Map<Long, Book> booksById = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private Book saveAndFlush(Book book, String duplicateMessage) {
+        try {
+            return bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            if (cause.toLowerCase(Locale.ROOT).contains(Book.GUTENBERG_ID_CONSTRAINT)) {
+                throw new IllegalArgumentException(duplicateMessage);
+            }
+            throw e;
+        }
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+    
+    // Collections are compared as plain lists; Hibernate's bags do not implement List.equals
+    private static boolean copyChangedFields(Book source, Book target) {
+        boolean changed = false;
+        if (!Objects.equals(source.getTitle(), target.getTitle())) {
+            target.setTitle(source.getTitle());
+            changed = true;
+        }
+        if (!source.getAuthors().equals(target.getAuthors())) {
+            target.setAuthorRefs(source.getAuthorRefs());
+            changed = true;
+        }
+        if (!source.getSubjects().equals(target.getSubjects())) {
+            target.setSubjectRefs(source.getSubjectRefs());
+            changed = true;
+        }
+        if (!listOf(source.getBookshelves()).equals(listOf(target.getBookshelves()))) {
+            target.setBookshelves(source.getBookshelves());
+            changed = true;
+        }
+        if (!Objects.equals(source.getLanguage(), target.getLanguage())) {
+            target.setLanguage(source.getLanguage());
+            changed = true;
+        }
+        if (!Objects.equals(source.getDownloadCount(), target.getDownloadCount())) {
+            target.setDownloadCount(source.getDownloadCount());
+            changed = true;
+        }
+        if (!Objects.equals(source.getMediaType(), target.getMediaType())) {
+            target.setMediaType(source.getMediaType());
+            changed = true;
+        }
+        if (!Objects.equals(source.getCoverUrl(), target.getCoverUrl())) {
+            target.setCoverUrl(source.getCoverUrl());
+            changed = true;
+        }
+        if (changed) {
+            touch(target);
+        }
+        return changed;
+    }
+    
+    private static List<String> listOf(List<String> values) {
+        return values != null ? new ArrayList<>(values) : List.of();
+    }
+    
+    private BookDTO publishCreated(BookDTO book) {
+        eventPublisher.publishEvent(BookChangedEvent.created(book));
+        return book;
+    }
+    
+    // The id orders use the last book's id as cursor. Title and downloads cursors are "<id>.<sort key>"
+    // with the key base64url-encoded, so the next page does not depend on that book still existing
+    // unchanged. Malformed cursors throw IllegalArgumentException (400).
+    private static String toCursor(BookSort sort, BookDTO last) {
+        String key = switch (sort) {
+            case ID, ID_DESC -> null;
+            case TITLE -> last.getTitle() != null ? last.getTitle() : "";
+            case DOWNLOADS -> String.valueOf(last.getDownloadCount() != null ? last.getDownloadCount() : 0);
+        };
+        if (key == null) {
+            return String.valueOf(last.getId());
+        }
+        return last.getId() + "." + CURSOR_ENCODER.encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static long parseCursorId(String cursor) {
+        return Long.parseLong(cursor.trim());
+    }
+    
+    private static long cursorId(String cursor) {
+        return parseCursorId(cursor.substring(0, cursorSeparator(cursor)));
+    }
+    
+    private static String cursorKey(String cursor) {
+        byte[] key = Base64.getUrlDecoder().decode(cursor.substring(cursorSeparator(cursor) + 1).trim());
+        return new String(key, StandardCharsets.UTF_8);
+    }
+    
+    private static int cursorSeparator(String cursor) {
+        int separator = cursor.indexOf('.');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return separator;
+    }
+    
+    // Helper methods using method references; package-private for the JMH benchmarks
+    BookDTO convertToDTO(Book book) {
         BookDTO dto = new BookDTO();
         dto.setId(book.getId());
         dto.setTitle(book.getTitle());
         dto.setAuthors(book.getAuthors());
         dto.setSubjects(book.getSubjects());
-        dto.setBookshelves(book.getBookshelves());
+        // Copied while the session is open: the DTO outlives it in caches and during serialization
+        dto.setBookshelves(book.getBookshelves() != null ? new ArrayList<>(book.getBookshelves()) : null);
         dto.setGutenbergId(book.getGutenbergId());
         dto.setLanguage(book.getLanguage());
         dto.setDownloadCount(book.getDownloadCount());
         dto.setMediaType(book.getMediaType());
         dto.setCoverUrl(book.getCoverUrl());
         dto.setCreatedAt(book.getCreatedAt());
+        dto.setUpdatedAt(book.getUpdatedAt());
         return dto;
     }
     
@@ -135,7 +563,7 @@ public class BookService {
         return book;
     }
     
-    private void updateEntityFromRequest(Book book, BookRequest request) {
+    void updateEntityFromRequest(Book book, BookRequest request) {
         book.setTitle(request.getTitle());
         book.setAuthors(request.getAuthors());
         book.setSubjects(request.getSubjects());
@@ -145,5 +573,12 @@ public class BookService {
         book.setDownloadCount(request.getDownloadCount());
         book.setMediaType(request.getMediaType());
         book.setCoverUrl(request.getCoverUrl());
+        touch(book);
+    }
+    
+    // @PreUpdate only runs when a column of books changes; a write that replaces only authors,
+    // subjects or bookshelves must still move updatedAt, which backs ETag and Last-Modified
+    private static void touch(Book book) {
+        book.setUpdatedAt(LocalDateTime.now());
     }
 }
@@ -1,14 +1,47 @@
 package com.bookcatalog.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @Configuration
+@EnableCaching
+@EnableScheduling
 public class AppConfig {
     
+    // JDK HttpClient keeps a pool of keep-alive connections per host (idle ones are closed after
+    // -Djdk.httpclient.keepalive.timeout, a JVM-wide setting); every request gets a connect timeout
+    // and a read timeout so a slow upstream cannot pin the calling thread
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${gutenberg.http.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${gutenberg.http.read-timeout:5s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                // gutendex redirects /books/{id} to /books/{id}/
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return builder.requestFactory(() -> requestFactory).build();
+    }
+    
+    // Bounds the number of concurrent gutendex fetches made by bulk imports and search prefetching.
+    // VirtualThreadConfig replaces it when virtual threads are enabled.
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "false", matchIfMissing = true)
+    public ExecutorService gutenbergFetchExecutor(@Value("${gutenberg.import.concurrency:8}") int concurrency) {
+        return Executors.newFixedThreadPool(concurrency);
     }
 }
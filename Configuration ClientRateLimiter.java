@@ -0,0 +1,83 @@
+package com.bookcatalog.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket per client, kept as the generic cell rate algorithm: each client has a theoretical
+// arrival time that advances by 1/rate per admitted request, and a request is admitted once that
+// time is less than "burst" intervals ahead of now. Every client is one AtomicLong updated by CAS,
+// so clients never contend with each other and admission takes no lock.
+public class ClientRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Not a valid client address
+    private static final String OVERFLOW = "";
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, int maxClients) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.maxClients = maxClients;
+    }
+
+    // Reserves the client's next slot if it comes within maxWaitNanos and returns how long the caller
+    // has to wait for it (0 when a token is available). Otherwise nothing is reserved and the result
+    // is negative: minus the nanoseconds until a request would be admitted without waiting.
+    public long acquire(String client, long maxWaitNanos) {
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(client);
+        if (arrival == null) {
+            arrival = register(client, now);
+        }
+        while (true) {
+            long theoretical = arrival.get();
+            long wait = theoretical - toleranceNanos - now;
+            if (wait > maxWaitNanos) {
+                return -wait;
+            }
+            if (arrival.compareAndSet(theoretical, Math.max(theoretical, now) + intervalNanos)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    // Gives back the token of a request admitted by acquire but then not served (shed for capacity)
+    public void refund(String client) {
+        AtomicLong arrival = arrivals.get(client);
+        if (arrival == null) {
+            arrival = arrivals.get(OVERFLOW);
+        }
+        if (arrival != null) {
+            arrival.addAndGet(-intervalNanos);
+        }
+    }
+
+    public int getClientCount() {
+        return arrivals.size();
+    }
+
+    // A client whose arrival time has passed has a full bucket and is the same as an unknown one, so
+    // those entries are dropped once the map reaches maxClients, at most once per SWEEP_INTERVAL_NANOS.
+    // While it stays full of active clients, new clients share the OVERFLOW bucket instead of growing it.
+    private AtomicLong register(String client, long now) {
+        if (arrivals.size() >= maxClients) {
+            long sweepAt = nextSweep.get();
+            if (now - sweepAt >= 0 && nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+                arrivals.values().removeIf(arrival -> arrival.get() <= now);
+            }
+            if (arrivals.size() >= maxClients) {
+                return arrivals.computeIfAbsent(OVERFLOW, key -> new AtomicLong(now));
+            }
+        }
+        return arrivals.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,63 @@
+package com.bookcatalog.config;
+
+import com.bookcatalog.service.CatalogIndex;
+import com.bookcatalog.service.FuzzySearchIndex;
+import com.bookcatalog.service.SimilarBooksIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+// Meters Spring Boot does not register on its own. HTTP endpoints, repository methods, Hikari,
+// Hibernate statistics and the Spring caches are instrumented by the actuator auto-configuration.
+@Configuration
+public class MetricsConfig {
+
+    // Pool size, active, queued and completed tasks; nothing is reported for the virtual-thread adapter
+    @Bean
+    public MeterBinder gutenbergFetchExecutorMetrics(@Qualifier("gutenbergFetchExecutor") ExecutorService executor) {
+        return new ExecutorServiceMetrics(executor, "gutenbergFetch", Tags.empty());
+    }
+
+    // 1 once an index has finished its initial build and serves reads, 0 while it is (re)building
+    @Bean
+    public MeterBinder catalogIndexMetrics(List<CatalogIndex> indexes) {
+        return registry -> indexes.forEach(index ->
+                Gauge.builder("catalog.index.ready", index, i -> i.isReady() ? 1 : 0)
+                        .tag("index", index.getClass().getSimpleName())
+                        .register(registry));
+    }
+
+    // Estimated heap of the fuzzy index; stats() takes its read lock, so this is sampled per scrape
+    @Bean
+    public MeterBinder fuzzySearchIndexMetrics(FuzzySearchIndex index) {
+        return registry -> {
+            Gauge.builder("catalog.index.fuzzy.memory", index, i -> i.stats().getEstimatedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("catalog.index.fuzzy.terms", index, i -> i.stats().getTerms())
+                    .register(registry);
+        };
+    }
+
+    // Heap and last full build time of the similar-books index; stale lists are recomputed on read
+    @Bean
+    public MeterBinder similarBooksIndexMetrics(SimilarBooksIndex index) {
+        return registry -> {
+            Gauge.builder("catalog.index.similar.memory", index, i -> i.stats().getEstimatedBytes())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("catalog.index.similar.build.duration", index, i -> i.stats().getBuildMillis() / 1000.0)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("catalog.index.similar.stale", index, i -> i.stats().getStaleBooks())
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.bookcatalog.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// Per-client limits in front of the gutendex search (plain and streamed), which calls gutendex
+// synchronously, and the single-book import, which queues a gutendex fetch per request. Bulk imports
+// are paced by their own job.
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor gutenbergSearch;
+    private final RateLimitInterceptor gutenbergImport;
+
+    public RateLimitConfig(MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.max-clients:100000}") int maxClients,
+                           @Value("${app.rate-limit.gutenberg-search.requests-per-second:2}") double searchRate,
+                           @Value("${app.rate-limit.gutenberg-search.burst:10}") int searchBurst,
+                           @Value("${app.rate-limit.gutenberg-search.max-concurrent:16}") int searchConcurrency,
+                           @Value("${app.rate-limit.gutenberg-search.queue-timeout:500ms}") Duration searchQueueTimeout,
+                           @Value("${app.rate-limit.import.requests-per-second:1}") double importRate,
+                           @Value("${app.rate-limit.import.burst:5}") int importBurst,
+                           @Value("${app.rate-limit.import.max-concurrent:8}") int importConcurrency,
+                           @Value("${app.rate-limit.import.queue-timeout:500ms}") Duration importQueueTimeout) {
+        this.gutenbergSearch = new RateLimitInterceptor("gutenberg-search", searchRate, searchBurst,
+                searchConcurrency, searchQueueTimeout, maxClients, meterRegistry);
+        this.gutenbergImport = new RateLimitInterceptor("import", importRate, importBurst,
+                importConcurrency, importQueueTimeout, maxClients, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(gutenbergSearch)
+                .addPathPatterns("/api/books/gutenberg/search", "/api/books/gutenberg/search/stream");
+        registry.addInterceptor(gutenbergImport)
+                .addPathPatterns("/api/books/import/*")
+                .excludePathPatterns("/api/books/import/bulk", "/api/books/import/catalog");
+    }
+}
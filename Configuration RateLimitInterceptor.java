@@ -0,0 +1,96 @@
+package com.bookcatalog.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Guards one group of routes that call gutendex. A request may queue for up to queueTimeout, first
+// for its client's next token, then for one of maxConcurrent upstream slots; beyond that it is shed:
+// 429 when the client exceeds its own rate, 503 when the route is saturated by everyone. Clients are
+// told by their remote address (configure server.forward-headers-strategy behind a proxy).
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    // Marks a request holding a slot; streamed responses keep it until their async dispatch completes
+    private static final String SLOT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".slot";
+
+    private final ClientRateLimiter limiter;
+    private final Semaphore upstreamSlots;
+    private final long queueTimeoutNanos;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public RateLimitInterceptor(String route, double requestsPerSecond, int burst, int maxConcurrent,
+                                Duration queueTimeout, int maxClients, MeterRegistry meterRegistry) {
+        this.limiter = new ClientRateLimiter(requestsPerSecond, burst, maxClients);
+        this.upstreamSlots = new Semaphore(maxConcurrent, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.rateLimited = Counter.builder("ratelimit.rejected")
+                .tag("route", route)
+                .tag("reason", "client-rate")
+                .register(meterRegistry);
+        this.shed = Counter.builder("ratelimit.rejected")
+                .tag("route", route)
+                .tag("reason", "capacity")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.upstream.active", upstreamSlots, slots -> maxConcurrent - slots.availablePermits())
+                .tag("route", route)
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.clients", limiter, ClientRateLimiter::getClientCount)
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getAttribute(SLOT_ATTRIBUTE) != null) {
+            // Async dispatch of a request admitted earlier
+            return true;
+        }
+        long start = System.nanoTime();
+        long wait = limiter.acquire(request.getRemoteAddr(), queueTimeoutNanos);
+        if (wait < 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, -wait);
+            return false;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        long remaining = queueTimeoutNanos - (System.nanoTime() - start);
+        if (!upstreamSlots.tryAcquire(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+            // Not served, so it does not count against the client's rate
+            limiter.refund(request.getRemoteAddr());
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return false;
+        }
+        request.setAttribute(SLOT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    // Not called for the dispatch that starts async processing, only once the response is complete
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(SLOT_ATTRIBUTE) != null) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            upstreamSlots.release();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (retryAfterNanos + 999_999_999) / 1_000_000_000)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookcatalog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+// Opt-in virtual-thread mode (requires Java 21, see the "java21" Maven profile).
+// spring.threads.virtual.enabled=true makes Tomcat run request handling on virtual threads;
+// this configuration moves the Gutenberg fan-out onto them as well and puts a semaphore in
+// front of the connection pool so the extra concurrency cannot oversubscribe it.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // One virtual thread per fetch; the concurrency limit still caps load on gutendex.
+    // The adapter cannot be shut down and has nothing to release.
+    @Bean(destroyMethod = "")
+    public ExecutorService gutenbergFetchExecutor(@Value("${gutenberg.import.concurrency:8}") int concurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("gutenberg-fetch-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrency);
+        return new ExecutorServiceAdapter(executor);
+    }
+
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${app.db.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BoundedDataSource)) {
+                    return new BoundedDataSource(dataSource, poolSize, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,38 +1,206 @@
 package com.bookcatalog.controller;
 
+import com.bookcatalog.dto.BatchResultDTO;
+import com.bookcatalog.dto.BookBatchUpdate;
 import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.BookFacetsDTO;
+import com.bookcatalog.dto.BookPage;
 import com.bookcatalog.dto.BookRequest;
+import com.bookcatalog.dto.BookSort;
+import com.bookcatalog.dto.BulkImportJobDTO;
+import com.bookcatalog.dto.BulkImportRequest;
+import com.bookcatalog.dto.CacheStatsDTO;
+import com.bookcatalog.dto.CatalogLoadJobDTO;
+import com.bookcatalog.dto.CatalogSyncRunDTO;
+import com.bookcatalog.dto.ImportJobDTO;
+import com.bookcatalog.dto.IndexStatsDTO;
+import com.bookcatalog.dto.SimilarIndexStatsDTO;
+import com.bookcatalog.service.BookBatchService;
+import com.bookcatalog.service.BookCaches;
 import com.bookcatalog.service.BookService;
+import com.bookcatalog.service.BulkImportService;
+import com.bookcatalog.service.CatalogLoaderService;
+import com.bookcatalog.service.CatalogSyncService;
+import com.bookcatalog.service.CatalogVersion;
+import com.bookcatalog.service.CoverCacheService;
+import com.bookcatalog.service.CoverUnavailableException;
+import com.bookcatalog.service.GutendexUnavailableException;
+import com.bookcatalog.service.ImportJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "*")
 public class BookController {
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final byte[] SSE_DATA = "data: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+    // Flush the export stream every this many lines
+    private static final int EXPORT_FLUSH_INTERVAL = 200;
+    // Tomcat's sendfile request attributes (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
     private final BookService bookService;
+    private final BookBatchService bookBatchService;
+    private final BulkImportService bulkImportService;
+    private final ImportJobService importJobService;
+    private final CatalogLoaderService catalogLoaderService;
+    private final CatalogSyncService catalogSyncService;
+    private final BookCaches bookCaches;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final int maxStreamResults;
+    private final CoverCacheService coverCacheService;
+    private final CacheControl coverCacheControl;
     
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookBatchService bookBatchService,
+                          BulkImportService bulkImportService, ImportJobService importJobService,
+                          CatalogLoaderService catalogLoaderService, CatalogSyncService catalogSyncService,
+                          BookCaches bookCaches, CatalogVersion catalogVersion, ObjectMapper objectMapper,
+                          @Value("${gutenberg.search.max-stream-results:10000}") int maxStreamResults,
+                          CoverCacheService coverCacheService,
+                          @Value("${gutenberg.covers.max-age:30d}") Duration coverMaxAge) {
         this.bookService = bookService;
+        this.bookBatchService = bookBatchService;
+        this.bulkImportService = bulkImportService;
+        this.importJobService = importJobService;
+        this.catalogLoaderService = catalogLoaderService;
+        this.catalogSyncService = catalogSyncService;
+        this.bookCaches = bookCaches;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxStreamResults = maxStreamResults;
+        this.coverCacheService = coverCacheService;
+        this.coverCacheControl = CacheControl.maxAge(coverMaxAge).cachePublic();
     }
     
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<BookPage> getBooks(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "ID") BookSort sort,
+            WebRequest request) {
+        try {
+            return ifCatalogChanged(request, () -> bookService.getBooksPage(after, limit, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Full catalog as newline-delimited JSON, written while the rows are read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(streamBooks(false, EXPORT_FLUSH_INTERVAL, bookService::exportBooks));
     }
     
+    // The DTO comes from the booksById cache, and the validators from the DTO, so a revalidation
+    // costs no query while the book is cached and the ETag always matches the body
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookDTO> getBookById(@PathVariable Long id, WebRequest request) {
         Optional<BookDTO> book = bookService.getBookById(id);
-        return book.map(ResponseEntity::ok)
+        if (book.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        BookDTO found = book.get();
+        Instant lastModified = found.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant();
+        String etag = "W/\"" + id + "-" + lastModified.toEpochMilli() + "\"";
+        if (request.checkNotModified(etag, lastModified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(found);
+    }
+    
+    // Served from the on-disk cover cache, downloading the cover on first use. Where the connector
+    // supports it, Tomcat sends the file itself (sendfile) once the headers are written; otherwise
+    // the file is copied with FileChannel.transferTo.
+    @GetMapping("/{id}/cover")
+    public ResponseEntity<StreamingResponseBody> getCover(@PathVariable Long id, WebRequest webRequest,
+                                                          HttpServletRequest request) {
+        Optional<CoverCacheService.Cover> cover = bookService.getBookById(id)
+                .flatMap(book -> coverCacheService.getCover(book.getCoverUrl()));
+        if (cover.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        CoverCacheService.Cover found = cover.get();
+        String etag = "\"" + found.contentHash() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(coverCacheControl).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(coverCacheControl)
+                .contentType(MediaType.parseMediaType(found.contentType()))
+                .contentLength(found.size());
+        if ("GET".equals(request.getMethod()) && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, found.file().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, found.size());
+            return response.build();
+        }
+        return response.body(out -> coverCacheService.transferTo(found, out));
+    }
+    
+    // Books sharing authors, subject headings and bookshelves with this one, most similar first
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<BookDTO>> getSimilarBooks(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        if (!bookService.isSimilarBooksIndexReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return bookService.getSimilarBooks(id, limit)
+                .map(books -> ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(books))
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/similar/stats")
+    public ResponseEntity<SimilarIndexStatsDTO> getSimilarIndexStats() {
+        return ResponseEntity.ok(bookService.getSimilarIndexStats());
+    }
+    
     @GetMapping("/gutenberg/{gutenbergId}")
     public ResponseEntity<BookDTO> getBookByGutenbergId(@PathVariable Integer gutenbergId) {
         Optional<BookDTO> book = bookService.getBookByGutenbergId(gutenbergId);
@@ -50,17 +218,101 @@ public class BookController {
         }
     }
     
+    // Batch writes: invalid or conflicting elements are reported per element, not as a failed request
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> addBooks(@RequestBody List<BookRequest> bookRequests) {
+        try {
+            return ResponseEntity.ok(bookBatchService.addBooks(bookRequests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PutMapping("/batch")
+    public ResponseEntity<BatchResultDTO> updateBooks(@RequestBody List<BookBatchUpdate> updates) {
+        try {
+            return ResponseEntity.ok(bookBatchService.updateBooks(updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResultDTO> deleteBooks(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(bookBatchService.deleteBooks(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Queues the import; 202 with the job, or 200 when the ID's job has already finished
     @PostMapping("/import/{gutenbergId}")
-    public ResponseEntity<BookDTO> importBook(@PathVariable Integer gutenbergId) {
+    public ResponseEntity<ImportJobDTO> importBook(@PathVariable Integer gutenbergId) {
+        try {
+            ImportJobDTO job = importJobService.submit(gutenbergId);
+            return (job.getFinishedAt() != null ? ResponseEntity.ok() : ResponseEntity.accepted())
+                    .location(URI.create("/api/import-jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/import/bulk")
+    public ResponseEntity<BulkImportJobDTO> importBooks(@RequestBody BulkImportRequest request) {
+        try {
+            return bulkImportService.startImport(request)
+                    .map(job -> ResponseEntity.accepted().body(job))
+                    .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "30")
+                            .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/import/bulk/{jobId}")
+    public ResponseEntity<BulkImportJobDTO> getImportJob(@PathVariable String jobId) {
+        return bulkImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Loads a catalog dump (pg_catalog.csv) from gutenberg.catalog.directory without calling gutendex
+    @PostMapping("/import/catalog")
+    public ResponseEntity<CatalogLoadJobDTO> loadCatalog(
+            @RequestParam(defaultValue = "pg_catalog.csv") String file,
+            @RequestParam(defaultValue = "true") boolean resume) {
         try {
-            Optional<BookDTO> importedBook = bookService.importBookFromGutenberg(gutenbergId);
-            return importedBook.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+            return ResponseEntity.accepted().body(catalogLoaderService.startLoad(file, resume));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @GetMapping("/import/catalog/{jobId}")
+    public ResponseEntity<CatalogLoadJobDTO> getCatalogLoadJob(@PathVariable String jobId) {
+        return catalogLoaderService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Refreshes download counts and metadata of every stored book from gutendex
+    @PostMapping("/sync")
+    public ResponseEntity<CatalogSyncRunDTO> startSync() {
+        return catalogSyncService.startSync()
+                .map(run -> ResponseEntity.accepted().body(run))
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+    
+    @GetMapping("/sync")
+    public ResponseEntity<CatalogSyncRunDTO> getSyncRun() {
+        return catalogSyncService.getLastRun()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<BookDTO> updateBook(@PathVariable Long id, 
                                             @Valid @RequestBody BookRequest bookRequest) {
@@ -76,19 +328,67 @@ public class BookController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<BookDTO>> searchBooks(@RequestParam String query) {
-        return ResponseEntity.ok(bookService.searchBooks(query));
+    public ResponseEntity<List<BookDTO>> searchBooks(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        return ifCatalogChanged(request, () -> bookService.searchBooks(query, limit));
+    }
+    
+    // Tolerates typos in title and author terms ("dostoevski", "shakspeare")
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<BookDTO>> fuzzySearchBooks(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return bookService.fuzzySearchBooks(query, limit)
+                .map(books -> ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(books))
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+    
+    @GetMapping("/search/fuzzy/stats")
+    public ResponseEntity<IndexStatsDTO> getFuzzyIndexStats() {
+        return ResponseEntity.ok(bookService.getFuzzyIndexStats());
+    }
+    
+    @GetMapping("/facets")
+    public ResponseEntity<BookFacetsDTO> getFacets(
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return bookService.getFacets(query, limit)
+                .map(facets -> ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(facets))
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
     }
     
     @GetMapping("/search/author")
-    public ResponseEntity<List<BookDTO>> searchBooksByAuthor(@RequestParam String author) {
-        return ResponseEntity.ok(bookService.searchBooksByAuthor(author));
+    public ResponseEntity<List<BookDTO>> searchBooksByAuthor(@RequestParam String author, WebRequest request) {
+        return ifCatalogChanged(request, () -> bookService.searchBooksByAuthor(author));
     }
     
     @GetMapping("/popular")
     public ResponseEntity<List<BookDTO>> getPopularBooks(
-            @RequestParam(required = false) Integer minDownloads) {
-        return ResponseEntity.ok(bookService.getPopularBooks(minDownloads));
+            @RequestParam(required = false) Integer minDownloads,
+            @RequestParam(defaultValue = "" + BookService.DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        return ifCatalogChanged(request, () -> bookService.getPopularBooks(minDownloads, limit));
+    }
+    
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getBookCacheStats() {
+        return ResponseEntity.ok(bookCaches.getStats());
     }
     
     @GetMapping("/gutenberg/search")
@@ -99,4 +399,77 @@ public class BookController {
             @RequestParam(required = false) String subject) {
         return ResponseEntity.ok(bookService.searchGutenbergBooks(query, author, title, subject));
     }
+    
+    // Follows gutendex pagination and writes each book as soon as it is mapped (NDJSON or SSE)
+    @GetMapping("/gutenberg/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamGutenbergBooks(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "100") int maxResults,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        boolean sse = "sse".equalsIgnoreCase(format);
+        int cap = Math.max(1, Math.min(maxResults, maxStreamResults));
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : NDJSON)
+                .body(streamBooks(sse, 1, consumer ->
+                        bookService.streamGutenbergBooks(query, author, title, subject, cap, consumer)));
+    }
+    
+    @GetMapping("/gutenberg/cache-stats")
+    public ResponseEntity<List<CacheStatsDTO>> getGutenbergCacheStats() {
+        return ResponseEntity.ok(bookService.getGutenbergCacheStats());
+    }
+    
+    @ExceptionHandler(GutendexUnavailableException.class)
+    public ResponseEntity<Void> handleGutendexUnavailable(GutendexUnavailableException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (e.getRetryAfter() != null && !e.getRetryAfter().isZero()) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())));
+        }
+        return response.build();
+    }
+    
+    @ExceptionHandler(CoverUnavailableException.class)
+    public ResponseEntity<Void> handleCoverUnavailable(CoverUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+    }
+    
+    // List responses are validated against the catalog version: 304 without running the query when the
+    // client's copy is current. The version is read before the body, so a racing write can only make
+    // the ETag older than the content, never newer.
+    private <T> ResponseEntity<T> ifCatalogChanged(WebRequest request, Supplier<T> body) {
+        String etag = catalogETag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(body.get());
+    }
+    
+    private String catalogETag() {
+        return "W/\"" + catalogVersion.current() + "\"";
+    }
+    
+    // Writes each book as one NDJSON line or one SSE "data:" event as the producer emits it
+    private StreamingResponseBody streamBooks(boolean sse, int flushInterval,
+                                              Consumer<Consumer<BookDTO>> producer) {
+        return out -> {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            int[] written = {0};
+            producer.accept(book -> {
+                try {
+                    if (sse) out.write(SSE_DATA);
+                    out.write(writer.writeValueAsBytes(book));
+                    out.write(sse ? SSE_END : NEWLINE);
+                    if (++written[0] % flushInterval == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+    }
 }
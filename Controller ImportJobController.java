@@ -0,0 +1,26 @@
+package com.bookcatalog.controller;
+
+import com.bookcatalog.dto.ImportJobDTO;
+import com.bookcatalog.service.ImportJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Jobs queued by POST /api/books/import/{gutenbergId}
+@RestController
+@RequestMapping("/api/import-jobs")
+@CrossOrigin(origins = "*")
+public class ImportJobController {
+    
+    private final ImportJobService importJobService;
+    
+    public ImportJobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable Long id) {
+        return importJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookcatalog.dto;
+
+// Outcome of one element of a batch request; index is its position in the request array
+public class BatchItemResultDTO {
+    private int index;
+    // CREATED, UPDATED, DELETED, INVALID, DUPLICATE, NOT_FOUND or FAILED
+    private String status;
+    private Long id;
+    private Integer gutenbergId;
+    private String message;
+
+    // Constructors, Getters and Setters
+    public BatchItemResultDTO() {}
+
+    public BatchItemResultDTO(String status, Long id, Integer gutenbergId, String message) {
+        this.status = status;
+        this.id = id;
+        this.gutenbergId = gutenbergId;
+        this.message = message;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getGutenbergId() { return gutenbergId; }
+    public void setGutenbergId(Integer gutenbergId) { this.gutenbergId = gutenbergId; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
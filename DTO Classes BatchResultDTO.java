@@ -0,0 +1,28 @@
+package com.bookcatalog.dto;
+
+import java.util.List;
+
+public class BatchResultDTO {
+    private int succeeded;
+    private int failed;
+    // One entry per request element, in request order
+    private List<BatchItemResultDTO> items;
+
+    // Constructors, Getters and Setters
+    public BatchResultDTO() {}
+
+    public BatchResultDTO(int succeeded, int failed, List<BatchItemResultDTO> items) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.items = items;
+    }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<BatchItemResultDTO> getItems() { return items; }
+    public void setItems(List<BatchItemResultDTO> items) { this.items = items; }
+}
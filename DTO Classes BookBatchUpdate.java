@@ -0,0 +1,21 @@
+package com.bookcatalog.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+// One element of PUT /api/books/batch: the id of the book and its new contents
+public class BookBatchUpdate {
+    @NotNull(message = "Book ID is mandatory")
+    private Long id;
+
+    @Valid
+    @NotNull(message = "Book is mandatory")
+    private BookRequest book;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public BookRequest getBook() { return book; }
+    public void setBook(BookRequest book) { this.book = book; }
+}
@@ -1,8 +1,12 @@
 package com.bookcatalog.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Absent values are left out rather than written as null
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class BookDTO {
     private Long id;
     private String title;
@@ -15,6 +19,7 @@ public class BookDTO {
     private String mediaType;
     private String coverUrl;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     // Constructors, Getters and Setters
     public BookDTO() {}
@@ -59,4 +64,7 @@ public class BookDTO {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
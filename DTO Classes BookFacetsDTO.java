@@ -0,0 +1,28 @@
+package com.bookcatalog.dto;
+
+import java.util.List;
+
+public class BookFacetsDTO {
+    // Number of books the counts were taken over (the whole catalog, or the search matches)
+    private long totalBooks;
+    private List<FacetCountDTO> languages;
+    private List<FacetCountDTO> authors;
+    private List<FacetCountDTO> subjects;
+    private List<FacetCountDTO> bookshelves;
+
+    // Getters and Setters
+    public long getTotalBooks() { return totalBooks; }
+    public void setTotalBooks(long totalBooks) { this.totalBooks = totalBooks; }
+
+    public List<FacetCountDTO> getLanguages() { return languages; }
+    public void setLanguages(List<FacetCountDTO> languages) { this.languages = languages; }
+
+    public List<FacetCountDTO> getAuthors() { return authors; }
+    public void setAuthors(List<FacetCountDTO> authors) { this.authors = authors; }
+
+    public List<FacetCountDTO> getSubjects() { return subjects; }
+    public void setSubjects(List<FacetCountDTO> subjects) { this.subjects = subjects; }
+
+    public List<FacetCountDTO> getBookshelves() { return bookshelves; }
+    public void setBookshelves(List<FacetCountDTO> bookshelves) { this.bookshelves = bookshelves; }
+}
@@ -0,0 +1,33 @@
+package com.bookcatalog.dto;
+
+import java.util.List;
+
+public class BookPage {
+    private List<BookDTO> items;
+    private int limit;
+    private BookSort sort;
+    // Pass as "after" to fetch the next page; null when this is the last page
+    private String nextCursor;
+
+    // Constructors, Getters and Setters
+    public BookPage() {}
+
+    public BookPage(List<BookDTO> items, int limit, BookSort sort, String nextCursor) {
+        this.items = items;
+        this.limit = limit;
+        this.sort = sort;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookDTO> getItems() { return items; }
+    public void setItems(List<BookDTO> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public BookSort getSort() { return sort; }
+    public void setSort(BookSort sort) { this.sort = sort; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,9 @@
+package com.bookcatalog.dto;
+
+// Sort orders supported by keyset pagination; every order is tie-broken by id
+public enum BookSort {
+    ID,
+    ID_DESC,
+    TITLE,
+    DOWNLOADS
+}
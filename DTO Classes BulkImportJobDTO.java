@@ -0,0 +1,47 @@
+package com.bookcatalog.dto;
+
+import java.time.LocalDateTime;
+
+public class BulkImportJobDTO {
+    private String jobId;
+    private String status;
+    private int requested;
+    private int alreadyPresent;
+    private int fetched;
+    private int imported;
+    private int failed;
+    private double booksPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getAlreadyPresent() { return alreadyPresent; }
+    public void setAlreadyPresent(int alreadyPresent) { this.alreadyPresent = alreadyPresent; }
+
+    public int getFetched() { return fetched; }
+    public void setFetched(int fetched) { this.fetched = fetched; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public double getBooksPerSecond() { return booksPerSecond; }
+    public void setBooksPerSecond(double booksPerSecond) { this.booksPerSecond = booksPerSecond; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
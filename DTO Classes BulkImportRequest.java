@@ -0,0 +1,20 @@
+package com.bookcatalog.dto;
+
+import java.util.List;
+
+// Either an explicit list of Gutenberg IDs or an inclusive fromId..toId range
+public class BulkImportRequest {
+    private List<Integer> gutenbergIds;
+    private Integer fromId;
+    private Integer toId;
+
+    // Getters and Setters
+    public List<Integer> getGutenbergIds() { return gutenbergIds; }
+    public void setGutenbergIds(List<Integer> gutenbergIds) { this.gutenbergIds = gutenbergIds; }
+
+    public Integer getFromId() { return fromId; }
+    public void setFromId(Integer fromId) { this.fromId = fromId; }
+
+    public Integer getToId() { return toId; }
+    public void setToId(Integer toId) { this.toId = toId; }
+}
@@ -0,0 +1,56 @@
+package com.bookcatalog.dto;
+
+import java.time.LocalDateTime;
+
+public class CatalogLoadJobDTO {
+    private String jobId;
+    private String file;
+    private String status;
+    private long resumedFrom;
+    private long recordsRead;
+    private long alreadyPresent;
+    private long imported;
+    private long skipped;
+    // Records whose book could not be written, even on its own
+    private long failed;
+    private double booksPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getResumedFrom() { return resumedFrom; }
+    public void setResumedFrom(long resumedFrom) { this.resumedFrom = resumedFrom; }
+
+    public long getRecordsRead() { return recordsRead; }
+    public void setRecordsRead(long recordsRead) { this.recordsRead = recordsRead; }
+
+    public long getAlreadyPresent() { return alreadyPresent; }
+    public void setAlreadyPresent(long alreadyPresent) { this.alreadyPresent = alreadyPresent; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public double getBooksPerSecond() { return booksPerSecond; }
+    public void setBooksPerSecond(double booksPerSecond) { this.booksPerSecond = booksPerSecond; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,51 @@
+package com.bookcatalog.dto;
+
+import java.time.LocalDateTime;
+
+public class CatalogSyncRunDTO {
+    private String status;
+    private long booksChecked;
+    private long booksChanged;
+    private long missingUpstream;
+    private long requests;
+    private long failedRequests;
+    private double averageUpstreamLatencyMs;
+    private long maxUpstreamLatencyMs;
+    private long elapsedMs;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getBooksChecked() { return booksChecked; }
+    public void setBooksChecked(long booksChecked) { this.booksChecked = booksChecked; }
+
+    public long getBooksChanged() { return booksChanged; }
+    public void setBooksChanged(long booksChanged) { this.booksChanged = booksChanged; }
+
+    public long getMissingUpstream() { return missingUpstream; }
+    public void setMissingUpstream(long missingUpstream) { this.missingUpstream = missingUpstream; }
+
+    public long getRequests() { return requests; }
+    public void setRequests(long requests) { this.requests = requests; }
+
+    public long getFailedRequests() { return failedRequests; }
+    public void setFailedRequests(long failedRequests) { this.failedRequests = failedRequests; }
+
+    public double getAverageUpstreamLatencyMs() { return averageUpstreamLatencyMs; }
+    public void setAverageUpstreamLatencyMs(double averageUpstreamLatencyMs) { this.averageUpstreamLatencyMs = averageUpstreamLatencyMs; }
+
+    public long getMaxUpstreamLatencyMs() { return maxUpstreamLatencyMs; }
+    public void setMaxUpstreamLatencyMs(long maxUpstreamLatencyMs) { this.maxUpstreamLatencyMs = maxUpstreamLatencyMs; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -0,0 +1,32 @@
+package com.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.List;
+
+// Only the gutendex fields that end up on Book are declared; everything else (translators,
+// copyright, the dozens of "formats" URLs...) is skipped by the parser without being materialized.
+// Low-cardinality values (languages, bookshelves, media type) are canonicalized so cached books share
+// one instance; subjects and author names are too varied for a pool to pay off.
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GutendexBook(
+        Integer id,
+        String title,
+        List<Person> authors,
+        List<String> subjects,
+        @JsonDeserialize(contentUsing = InternedStringDeserializer.class) List<String> bookshelves,
+        @JsonDeserialize(contentUsing = InternedStringDeserializer.class) List<String> languages,
+        @JsonProperty("media_type") @JsonDeserialize(using = InternedStringDeserializer.class) String mediaType,
+        @JsonProperty("download_count") Integer downloadCount,
+        Formats formats) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Person(String name) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Formats(@JsonProperty("image/jpeg") String imageJpeg) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookcatalog.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+// One page of a gutendex /books listing; "next" is the absolute URL of the following page
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GutendexPage(Integer count, String next, List<GutendexBook> results) {
+}
@@ -0,0 +1,38 @@
+package com.bookcatalog.dto;
+
+public class IndexStatsDTO {
+    private String name;
+    private boolean ready;
+    private long books;
+    private long terms;
+    private long trigrams;
+    private long postings;
+    private long tombstones;
+    // Approximate retained heap of the index structures
+    private long estimatedBytes;
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public boolean isReady() { return ready; }
+    public void setReady(boolean ready) { this.ready = ready; }
+
+    public long getBooks() { return books; }
+    public void setBooks(long books) { this.books = books; }
+
+    public long getTerms() { return terms; }
+    public void setTerms(long terms) { this.terms = terms; }
+
+    public long getTrigrams() { return trigrams; }
+    public void setTrigrams(long trigrams) { this.trigrams = trigrams; }
+
+    public long getPostings() { return postings; }
+    public void setPostings(long postings) { this.postings = postings; }
+
+    public long getTombstones() { return tombstones; }
+    public void setTombstones(long tombstones) { this.tombstones = tombstones; }
+
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public void setEstimatedBytes(long estimatedBytes) { this.estimatedBytes = estimatedBytes; }
+}
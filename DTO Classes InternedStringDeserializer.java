@@ -0,0 +1,35 @@
+package com.bookcatalog.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Returns one shared instance per distinct value. Only for low-cardinality fields (language codes,
+// bookshelves, media types): the pool never evicts, and once full new values are returned as parsed.
+public class InternedStringDeserializer extends StdScalarDeserializer<String> {
+
+    private static final int MAX_POOL_SIZE = 10_000;
+    private static final ConcurrentMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    public InternedStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String value = parser.getValueAsString();
+        return value != null ? intern(value) : null;
+    }
+
+    public static String intern(String value) {
+        String pooled = POOL.get(value);
+        if (pooled != null) return pooled;
+        if (POOL.size() >= MAX_POOL_SIZE) return value;
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
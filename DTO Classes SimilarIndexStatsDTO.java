@@ -0,0 +1,49 @@
+package com.bookcatalog.dto;
+
+public class SimilarIndexStatsDTO {
+    private boolean ready;
+    private long books;
+    private long features;
+    private long buckets;
+    private long bucketEntries;
+    // Stored neighbour ids over all books
+    private long neighbours;
+    // Books whose neighbour list is recomputed by its next read
+    private long staleBooks;
+    private int maxNeighbours;
+    // Duration of the last full build, after the catalog scan
+    private long buildMillis;
+    // Approximate retained heap of the index structures
+    private long estimatedBytes;
+
+    // Getters and Setters
+    public boolean isReady() { return ready; }
+    public void setReady(boolean ready) { this.ready = ready; }
+
+    public long getBooks() { return books; }
+    public void setBooks(long books) { this.books = books; }
+
+    public long getFeatures() { return features; }
+    public void setFeatures(long features) { this.features = features; }
+
+    public long getBuckets() { return buckets; }
+    public void setBuckets(long buckets) { this.buckets = buckets; }
+
+    public long getBucketEntries() { return bucketEntries; }
+    public void setBucketEntries(long bucketEntries) { this.bucketEntries = bucketEntries; }
+
+    public long getNeighbours() { return neighbours; }
+    public void setNeighbours(long neighbours) { this.neighbours = neighbours; }
+
+    public long getStaleBooks() { return staleBooks; }
+    public void setStaleBooks(long staleBooks) { this.staleBooks = staleBooks; }
+
+    public int getMaxNeighbours() { return maxNeighbours; }
+    public void setMaxNeighbours(int maxNeighbours) { this.maxNeighbours = maxNeighbours; }
+
+    public long getBuildMillis() { return buildMillis; }
+    public void setBuildMillis(long buildMillis) { this.buildMillis = buildMillis; }
+
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public void setEstimatedBytes(long estimatedBytes) { this.estimatedBytes = estimatedBytes; }
+}
@@ -0,0 +1,65 @@
+-- Baseline schema for the file-backed (prod) profile; mirrors the JPA mappings in com.bookcatalog.model.
+-- Sequences step by 50 to match the allocationSize of the id generators.
+
+CREATE SEQUENCE book_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE author_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE subject_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE books (
+    id             BIGINT        NOT NULL,
+    title          VARCHAR(255)  NOT NULL,
+    gutenberg_id   INTEGER       NOT NULL,
+    language       VARCHAR(255),
+    download_count INTEGER,
+    media_type     VARCHAR(255),
+    cover_url      VARCHAR(1000),
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT pk_books PRIMARY KEY (id),
+    CONSTRAINT uk_books_gutenberg_id UNIQUE (gutenberg_id)
+);
+CREATE INDEX idx_books_download_count ON books (download_count);
+CREATE INDEX idx_books_language ON books (language);
+
+CREATE TABLE authors (
+    id         BIGINT       NOT NULL,
+    name       VARCHAR(500) NOT NULL,
+    name_lower VARCHAR(500) NOT NULL,
+    CONSTRAINT pk_authors PRIMARY KEY (id),
+    CONSTRAINT uk_authors_name_lower UNIQUE (name_lower)
+);
+
+CREATE TABLE subjects (
+    id         BIGINT        NOT NULL,
+    name       VARCHAR(1000) NOT NULL,
+    name_lower VARCHAR(1000) NOT NULL,
+    CONSTRAINT pk_subjects PRIMARY KEY (id),
+    CONSTRAINT uk_subjects_name_lower UNIQUE (name_lower)
+);
+
+CREATE TABLE book_authors (
+    book_id   BIGINT  NOT NULL,
+    position  INTEGER NOT NULL,
+    author_id BIGINT  NOT NULL,
+    CONSTRAINT pk_book_authors PRIMARY KEY (book_id, position),
+    CONSTRAINT fk_book_authors_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_book_authors_author FOREIGN KEY (author_id) REFERENCES authors (id)
+);
+CREATE INDEX idx_book_authors_author ON book_authors (author_id);
+
+CREATE TABLE book_subjects (
+    book_id    BIGINT  NOT NULL,
+    position   INTEGER NOT NULL,
+    subject_id BIGINT  NOT NULL,
+    CONSTRAINT pk_book_subjects PRIMARY KEY (book_id, position),
+    CONSTRAINT fk_book_subjects_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_book_subjects_subject FOREIGN KEY (subject_id) REFERENCES subjects (id)
+);
+CREATE INDEX idx_book_subjects_subject ON book_subjects (subject_id);
+
+CREATE TABLE book_bookshelves (
+    book_id   BIGINT NOT NULL,
+    bookshelf VARCHAR(255),
+    CONSTRAINT fk_book_bookshelves_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+CREATE INDEX idx_book_bookshelves_book ON book_bookshelves (book_id);
@@ -0,0 +1,18 @@
+-- Durable queue behind POST /api/books/import/{gutenbergId}; mirrors com.bookcatalog.model.ImportJob.
+
+CREATE SEQUENCE import_job_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE import_jobs (
+    id           BIGINT        NOT NULL,
+    gutenberg_id INTEGER       NOT NULL,
+    status       VARCHAR(20)   NOT NULL,
+    book_id      BIGINT,
+    attempts     INTEGER       NOT NULL,
+    error        VARCHAR(1000),
+    created_at   TIMESTAMP(6),
+    started_at   TIMESTAMP(6),
+    finished_at  TIMESTAMP(6),
+    CONSTRAINT pk_import_jobs PRIMARY KEY (id),
+    CONSTRAINT uk_import_jobs_gutenberg_id UNIQUE (gutenberg_id)
+);
+CREATE INDEX idx_import_jobs_status ON import_jobs (status);
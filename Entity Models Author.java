@@ -0,0 +1,44 @@
+package com.bookcatalog.model;
+
+import jakarta.persistence.*;
+
+import java.util.Locale;
+
+// One row per distinct author name; books reference authors through book_authors
+@Entity
+@Table(name = "authors",
+       uniqueConstraints = @UniqueConstraint(name = "uk_authors_name_lower", columnNames = "name_lower"))
+public class Author {
+    public static final int NAME_LENGTH = 500;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = NAME_LENGTH)
+    private String name;
+
+    // Lower-cased copy of name; its unique index serves lookups and prefix searches
+    @Column(name = "name_lower", nullable = false, length = NAME_LENGTH)
+    private String nameLower;
+
+    // Constructors
+    protected Author() {}
+
+    public Author(String name) {
+        this.name = name;
+        this.nameLower = normalize(name);
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getNameLower() { return nameLower; }
+}
@@ -3,33 +3,82 @@ package com.bookcatalog.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 @Entity
-@Table(name = "books")
+// UPDATEs name only the changed columns, e.g. just download_count for the gutendex sync
+@DynamicUpdate
+@Table(name = "books",
+       uniqueConstraints = @UniqueConstraint(name = Book.GUTENBERG_ID_CONSTRAINT, columnNames = "gutenberg_id"),
+       indexes = {
+           @Index(name = "idx_books_download_count", columnList = "download_count"),
+           @Index(name = "idx_books_language", columnList = "language")
+       })
 public class Book {
+    // Duplicate imports are rejected by this constraint rather than by a read before the insert
+    public static final String GUTENBERG_ID_CONSTRAINT = "uk_books_gutenberg_id";
+    // Column sizes (V1__baseline_schema.sql); language and media type use the same 255
+    public static final int TITLE_LENGTH = 255;
+    public static final int BOOKSHELF_LENGTH = 255;
+    public static final int CODE_LENGTH = 255;
+    public static final int COVER_URL_LENGTH = 1000;
+
+    // Sequence ids (allocated 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is mandatory")
+    @Column(length = TITLE_LENGTH)
     private String title;
 
-    @ElementCollection
-    private List<String> authors;
+    // Collections load lazily in batches, so a list of N books costs a fixed number of
+    // statements per collection instead of one per book.
+    // Authors and subjects are shared rows; setAuthors/setSubjects attach unsaved placeholders
+    // that CatalogNameService swaps for the stored rows before the book is saved.
+    @ManyToMany
+    @JoinTable(name = "book_authors",
+               joinColumns = @JoinColumn(name = "book_id"),
+               inverseJoinColumns = @JoinColumn(name = "author_id"),
+               indexes = @Index(name = "idx_book_authors_author", columnList = "author_id"))
+    @OrderColumn(name = "position")
+    @BatchSize(size = 256)
+    private List<Author> authorRefs = new ArrayList<>();
+
+    @ManyToMany
+    @JoinTable(name = "book_subjects",
+               joinColumns = @JoinColumn(name = "book_id"),
+               inverseJoinColumns = @JoinColumn(name = "subject_id"),
+               indexes = @Index(name = "idx_book_subjects_subject", columnList = "subject_id"))
+    @OrderColumn(name = "position")
+    @BatchSize(size = 256)
+    private List<Subject> subjectRefs = new ArrayList<>();
 
-    private List<String> subjects;
+    @ElementCollection
+    @CollectionTable(name = "book_bookshelves", joinColumns = @JoinColumn(name = "book_id"))
+    @Column(name = "bookshelf", length = BOOKSHELF_LENGTH)
+    @BatchSize(size = 256)
     private List<String> bookshelves;
     
     @NotNull(message = "Gutenberg ID is mandatory")
+    @Column(name = "gutenberg_id")
     private Integer gutenbergId;
     
+    @Column(length = CODE_LENGTH)
     private String language;
+    @Column(name = "download_count")
     private Integer downloadCount;
+    @Column(length = CODE_LENGTH)
     private String mediaType;
     
-    @Column(length = 1000)
+    @Column(length = COVER_URL_LENGTH)
     private String coverUrl;
     
     private LocalDateTime createdAt;
@@ -51,7 +100,7 @@ public class Book {
 
     public Book(String title, List<String> authors, Integer gutenbergId) {
         this.title = title;
-        this.authors = authors;
+        setAuthors(authors);
         this.gutenbergId = gutenbergId;
     }
 
@@ -62,11 +111,17 @@ public class Book {
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public List<String> getAuthors() { return authors; }
-    public void setAuthors(List<String> authors) { this.authors = authors; }
+    public List<String> getAuthors() { return names(authorRefs, Author::getName); }
+    public void setAuthors(List<String> authors) { replace(authorRefs, authors, Author::new); }
+
+    public List<Author> getAuthorRefs() { return authorRefs; }
+    public void setAuthorRefs(List<Author> authorRefs) { replaceRefs(this.authorRefs, authorRefs); }
 
-    public List<String> getSubjects() { return subjects; }
-    public void setSubjects(List<String> subjects) { this.subjects = subjects; }
+    public List<String> getSubjects() { return names(subjectRefs, Subject::getName); }
+    public void setSubjects(List<String> subjects) { replace(subjectRefs, subjects, Subject::new); }
+
+    public List<Subject> getSubjectRefs() { return subjectRefs; }
+    public void setSubjectRefs(List<Subject> subjectRefs) { replaceRefs(this.subjectRefs, subjectRefs); }
 
     public List<String> getBookshelves() { return bookshelves; }
     public void setBookshelves(List<String> bookshelves) { this.bookshelves = bookshelves; }
@@ -91,4 +146,28 @@ public class Book {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    private static <T> List<String> names(List<T> refs, Function<T, String> name) {
+        return refs.stream().map(name).toList();
+    }
+
+    // Lists are updated in place so a managed collection keeps its identity
+    private static <T> void replaceRefs(List<T> refs, List<T> replacement) {
+        if (refs == replacement) return;
+        List<T> copy = new ArrayList<>(replacement);
+        refs.clear();
+        refs.addAll(copy);
+    }
+
+    private static <T> void replace(List<T> refs, List<String> names, Function<String, T> placeholder) {
+        refs.clear();
+        if (names != null) {
+            names.stream()
+                    .filter(Objects::nonNull)
+                    .filter(name -> !name.isBlank())
+                    .distinct()
+                    .map(placeholder)
+                    .forEach(refs::add);
+        }
+    }
 }
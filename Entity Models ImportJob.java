@@ -0,0 +1,93 @@
+package com.bookcatalog.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// One row per requested Gutenberg ID, so submitting the same ID again finds the same job.
+// The table is the durable queue: QUEUED rows are picked up again after a restart.
+@Entity
+@Table(name = "import_jobs",
+       uniqueConstraints = @UniqueConstraint(name = ImportJob.GUTENBERG_ID_CONSTRAINT, columnNames = "gutenberg_id"),
+       indexes = @Index(name = "idx_import_jobs_status", columnList = "status"))
+public class ImportJob {
+    public static final String GUTENBERG_ID_CONSTRAINT = "uk_import_jobs_gutenberg_id";
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, ALREADY_IMPORTED, NOT_FOUND, FAILED;
+
+        // Finished without a book; submitting the ID again queues the job once more
+        public boolean isRetryable() {
+            return this == NOT_FOUND || this == FAILED;
+        }
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_job_seq")
+    @SequenceGenerator(name = "import_job_seq", sequenceName = "import_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "gutenberg_id", nullable = false)
+    private Integer gutenbergId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    // The imported book, or the one already present for ALREADY_IMPORTED
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 1000)
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    protected ImportJob() {}
+
+    public ImportJob(Integer gutenbergId) {
+        this.gutenbergId = gutenbergId;
+        this.status = Status.QUEUED;
+    }
+
+    public void finish(Status finalStatus, Long bookId, String error) {
+        this.status = finalStatus;
+        this.bookId = bookId;
+        this.error = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Integer getGutenbergId() { return gutenbergId; }
+
+    public Status getStatus() { return status; }
+
+    public Long getBookId() { return bookId; }
+
+    public int getAttempts() { return attempts; }
+
+    public String getError() { return error; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+}
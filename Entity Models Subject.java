@@ -0,0 +1,44 @@
+package com.bookcatalog.model;
+
+import jakarta.persistence.*;
+
+import java.util.Locale;
+
+// One row per distinct subject heading; books reference subjects through book_subjects
+@Entity
+@Table(name = "subjects",
+       uniqueConstraints = @UniqueConstraint(name = "uk_subjects_name_lower", columnNames = "name_lower"))
+public class Subject {
+    public static final int NAME_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subject_seq")
+    @SequenceGenerator(name = "subject_seq", sequenceName = "subject_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = NAME_LENGTH)
+    private String name;
+
+    // Lower-cased copy of name; its unique index serves lookups and prefix searches
+    @Column(name = "name_lower", nullable = false, length = NAME_LENGTH)
+    private String nameLower;
+
+    // Constructors
+    protected Subject() {}
+
+    public Subject(String name) {
+        this.name = name;
+        this.nameLower = normalize(name);
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getNameLower() { return nameLower; }
+}
@@ -0,0 +1,14 @@
+package com.bookcatalog.repository;
+
+import com.bookcatalog.model.Author;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AuthorRepository extends JpaRepository<Author, Long> {
+    
+    List<Author> findByNameLowerIn(Collection<String> namesLower);
+}
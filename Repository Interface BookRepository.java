@@ -1,13 +1,21 @@
 package com.bookcatalog.repository;
 
 import com.bookcatalog.model.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -15,11 +23,48 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     // Using Spring Data JPA query methods with lambdas
     Optional<Book> findByGutenbergId(Integer gutenbergId);
     
+    @Query("SELECT b.gutenbergId FROM Book b WHERE b.gutenbergId IN :gutenbergIds")
+    List<Integer> findExistingGutenbergIds(@Param("gutenbergIds") Collection<Integer> gutenbergIds);
+    
+    // Only the columns a delete needs for its events; no entities are loaded
+    interface BookKey {
+        Long getId();
+        Integer getGutenbergId();
+    }
+    
+    List<BookKey> findByIdIn(Collection<Long> ids);
+    
+    // Bulk deletes: the join and collection tables first, then the books themselves
+    @Modifying
+    @Query(value = "DELETE FROM book_authors WHERE book_id IN (:ids)", nativeQuery = true)
+    int deleteAuthorLinks(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM book_subjects WHERE book_id IN (:ids)", nativeQuery = true)
+    int deleteSubjectLinks(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query(value = "DELETE FROM book_bookshelves WHERE book_id IN (:ids)", nativeQuery = true)
+    int deleteBookshelves(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    List<Book> findByGutenbergIdIn(Collection<Integer> gutenbergIds);
+    
+    // Keyset walk over the unique gutenberg_id index
+    @Query("SELECT b.gutenbergId FROM Book b WHERE b.gutenbergId > :after ORDER BY b.gutenbergId ASC")
+    List<Integer> findGutenbergIdsAfter(@Param("after") Integer after, Pageable pageable);
+    
     List<Book> findByTitleContainingIgnoreCase(String title);
     
-    List<Book> findByAuthorsContainingIgnoreCase(String author);
+    // Prefix match on the normalized name, which the unique index on authors.name_lower can serve
+    @Query("SELECT DISTINCT b FROM Book b JOIN b.authorRefs a WHERE a.nameLower LIKE CONCAT(:prefix, '%') ESCAPE '!'")
+    List<Book> findByAuthorNamePrefix(@Param("prefix") String prefix);
     
-    List<Book> findBySubjectsContainingIgnoreCase(String subject);
+    @Query("SELECT DISTINCT b FROM Book b JOIN b.subjectRefs s WHERE s.nameLower LIKE CONCAT('%', :subject, '%')")
+    List<Book> findBySubjectContaining(@Param("subject") String subject);
     
     List<Book> findByLanguage(String language);
     
@@ -27,12 +72,34 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     
     // Custom query using JPQL with streams processing
     @Query("SELECT b FROM Book b WHERE b.downloadCount >= :minDownloads ORDER BY b.downloadCount DESC")
-    List<Book> findPopularBooks(@Param("minDownloads") Integer minDownloads);
+    List<Book> findPopularBooks(@Param("minDownloads") Integer minDownloads, Pageable pageable);
     
     // Custom query for search across multiple fields
     @Query("SELECT b FROM Book b WHERE " +
            "LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "EXISTS (SELECT a FROM b.authors a WHERE LOWER(a) LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
-           "EXISTS (SELECT s FROM b.subjects s WHERE LOWER(s) LIKE LOWER(CONCAT('%', :query, '%')))")
+           "EXISTS (SELECT a FROM b.authorRefs a WHERE a.nameLower LIKE LOWER(CONCAT('%', :query, '%'))) OR " +
+           "EXISTS (SELECT s FROM b.subjectRefs s WHERE s.nameLower LIKE LOWER(CONCAT('%', :query, '%')))")
     List<Book> searchBooks(@Param("query") String query);
+    
+    // Keyset (seek) pagination: each page starts strictly after the last row of the previous one
+    @Query("SELECT b FROM Book b WHERE b.id > :after ORDER BY b.id ASC")
+    List<Book> findPageOrderById(@Param("after") Long after, Pageable pageable);
+    
+    @Query("SELECT b FROM Book b WHERE b.id < :before ORDER BY b.id DESC")
+    List<Book> findPageOrderByIdDesc(@Param("before") Long before, Pageable pageable);
+    
+    @Query("SELECT b FROM Book b WHERE b.title > :title OR (b.title = :title AND b.id > :after) " +
+           "ORDER BY b.title ASC, b.id ASC")
+    List<Book> findPageOrderByTitle(@Param("title") String title, @Param("after") Long after, Pageable pageable);
+    
+    @Query("SELECT b FROM Book b WHERE COALESCE(b.downloadCount, 0) < :downloads OR " +
+           "(COALESCE(b.downloadCount, 0) = :downloads AND b.id > :after) " +
+           "ORDER BY COALESCE(b.downloadCount, 0) DESC, b.id ASC")
+    List<Book> findPageOrderByDownloads(@Param("downloads") Integer downloads, @Param("after") Long after,
+                                        Pageable pageable);
+    
+    // Cursor-backed stream for full exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Book b ORDER BY b.id ASC")
+    Stream<Book> streamAllOrderById();
 }
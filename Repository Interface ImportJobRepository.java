@@ -0,0 +1,89 @@
+package com.bookcatalog.repository;
+
+import com.bookcatalog.model.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    
+    Optional<ImportJob> findByGutenbergId(Integer gutenbergId);
+    
+    @Query("SELECT j.id FROM ImportJob j WHERE j.status = :status ORDER BY j.id ASC")
+    List<Long> findIdsByStatus(@Param("status") ImportJob.Status status);
+    
+    long countByStatus(ImportJob.Status status);
+    
+    // Jobs a stopped instance was working on; they start over
+    default int requeueRunning() {
+        return resetStatus(ImportJob.Status.RUNNING, ImportJob.Status.QUEUED);
+    }
+    
+    // 1 when the job was QUEUED and is now RUNNING for the caller, 0 when another worker claimed it
+    default int claim(Long id, LocalDateTime now) {
+        return startJob(id, ImportJob.Status.QUEUED, ImportJob.Status.RUNNING, now);
+    }
+    
+    // 1 when the job had ended without a book and is now QUEUED for the caller, 0 when a concurrent
+    // submit requeued it first
+    default int requeueRetryable(Long id) {
+        return requeueJob(id, Arrays.stream(ImportJob.Status.values()).filter(ImportJob.Status::isRetryable).toList(),
+                ImportJob.Status.QUEUED);
+    }
+    
+    // As requeueRetryable, for a job that imported a book which has been deleted since
+    default int requeueWithDeletedBook(Long id, Long bookId) {
+        return requeueJobOfBook(id, bookId, List.of(ImportJob.Status.COMPLETED, ImportJob.Status.ALREADY_IMPORTED),
+                ImportJob.Status.QUEUED);
+    }
+    
+    // Jobs whose batch failed before their outcome was stored
+    default int failRunning(Collection<Long> ids, String error, LocalDateTime now) {
+        return finishJobs(ids, ImportJob.Status.RUNNING, ImportJob.Status.FAILED, error, now);
+    }
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.startedAt = NULL WHERE j.status = :previous")
+    int resetStatus(@Param("previous") ImportJob.Status previous, @Param("status") ImportJob.Status status);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.startedAt = :now, j.attempts = j.attempts + 1 " +
+           "WHERE j.id = :id AND j.status = :previous")
+    int startJob(@Param("id") Long id, @Param("previous") ImportJob.Status previous,
+                 @Param("status") ImportJob.Status status, @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.bookId = NULL, j.error = NULL, j.startedAt = NULL, " +
+           "j.finishedAt = NULL WHERE j.id = :id AND j.status IN :previous")
+    int requeueJob(@Param("id") Long id, @Param("previous") Collection<ImportJob.Status> previous,
+                   @Param("status") ImportJob.Status status);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.bookId = NULL, j.error = NULL, j.startedAt = NULL, " +
+           "j.finishedAt = NULL WHERE j.id = :id AND j.bookId = :bookId AND j.status IN :previous")
+    int requeueJobOfBook(@Param("id") Long id, @Param("bookId") Long bookId,
+                         @Param("previous") Collection<ImportJob.Status> previous,
+                         @Param("status") ImportJob.Status status);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.error = :error, j.finishedAt = :now " +
+           "WHERE j.id IN :ids AND j.status = :previous")
+    int finishJobs(@Param("ids") Collection<Long> ids, @Param("previous") ImportJob.Status previous,
+                   @Param("status") ImportJob.Status status, @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,14 @@
+package com.bookcatalog.repository;
+
+import com.bookcatalog.model.Subject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SubjectRepository extends JpaRepository<Subject, Long> {
+    
+    List<Subject> findByNameLowerIn(Collection<String> namesLower);
+}
@@ -0,0 +1,105 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BatchItemResultDTO;
+import com.bookcatalog.dto.BatchResultDTO;
+import com.bookcatalog.dto.BookBatchUpdate;
+import com.bookcatalog.dto.BookRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Many-book writes: every element is validated up front, the valid ones are written in chunks of
+// app.batch.chunk-size with one transaction per chunk, and each element gets its own result.
+// A chunk that fails as a whole (e.g. a concurrent insert of the same Gutenberg ID) is rolled back
+// and its elements are reported as FAILED; the other chunks are unaffected.
+@Service
+public class BookBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookBatchService.class);
+    private static final Set<String> SUCCESS = Set.of("CREATED", "UPDATED", "DELETED");
+
+    private final BookService bookService;
+    private final Validator validator;
+    private final int maxItems;
+    private final int chunkSize;
+
+    public BookBatchService(BookService bookService, Validator validator,
+                            @Value("${app.batch.max-items:10000}") int maxItems,
+                            @Value("${app.batch.chunk-size:500}") int chunkSize) {
+        this.bookService = bookService;
+        this.validator = validator;
+        this.maxItems = maxItems;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public BatchResultDTO addBooks(List<BookRequest> requests) {
+        return run(requests, this::violations, bookService::addBooks);
+    }
+
+    public BatchResultDTO updateBooks(List<BookBatchUpdate> updates) {
+        return run(updates, this::violations, bookService::updateBooks);
+    }
+
+    public BatchResultDTO deleteBooks(List<Long> ids) {
+        return run(ids, id -> id == null ? "Book ID is mandatory" : null, bookService::deleteBooks);
+    }
+
+    private <T> BatchResultDTO run(List<T> items, Function<T, String> validate,
+                                   Function<List<T>, List<BatchItemResultDTO>> writeChunk) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one element");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " elements can be written per batch");
+        }
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[items.size()];
+        List<Integer> valid = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String violation = validate.apply(items.get(i));
+            if (violation != null) {
+                results[i] = new BatchItemResultDTO("INVALID", null, null, violation);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+            List<T> chunkItems = chunk.stream().map(items::get).collect(Collectors.toList());
+            try {
+                List<BatchItemResultDTO> written = writeChunk.apply(chunkItems);
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = written.get(i);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Batch chunk of {} elements rolled back: {}", chunk.size(), e.getMessage());
+                chunk.forEach(index -> results[index] =
+                        new BatchItemResultDTO("FAILED", null, null, "Chunk rolled back: " + e.getMessage()));
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            results[i].setIndex(i);
+        }
+        int succeeded = (int) Arrays.stream(results).filter(result -> SUCCESS.contains(result.getStatus())).count();
+        return new BatchResultDTO(succeeded, results.length - succeeded, Arrays.asList(results));
+    }
+
+    private String violations(Object item) {
+        if (item == null) return "Element is empty";
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Evicts exactly the entries a committed write can have made stale and reports hit ratios. The
+// lookups are cached with sync = true, so an eviction waits for a load of the same key in flight
+// and then removes what it stored.
+@Component
+public class BookCaches {
+
+    public static final String BY_ID = "booksById";
+    public static final String BY_GUTENBERG_ID = "booksByGutenbergId";
+
+    private final CacheManager cacheManager;
+
+    public BookCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // Before CatalogIndexer moves the catalog version on, so responses under the new version
+    // never read a stale entry
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        evict(BY_ID, event.bookId());
+        evict(BY_GUTENBERG_ID, event.previousGutenbergId());
+        if (!event.isDeletion()) {
+            evict(BY_GUTENBERG_ID, event.book().getGutenbergId());
+        }
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        return Stream.of(BY_ID, BY_GUTENBERG_ID)
+                .map(cacheManager::getCache)
+                .filter(CaffeineCache.class::isInstance)
+                .map(cache -> toDTO((CaffeineCache) cache))
+                .toList();
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static CacheStatsDTO toDTO(CaffeineCache cache) {
+        CacheStats stats = cache.getNativeCache().stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(cache.getName());
+        dto.setSize(cache.getNativeCache().estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+
+// Published by BookService for every committed write; book is null when the book was deleted.
+// previousGutenbergId is the Gutenberg ID the book had before the write (null for new books).
+public record BookChangedEvent(Long bookId, Integer previousGutenbergId, BookDTO book) {
+
+    public static BookChangedEvent created(BookDTO book) {
+        return new BookChangedEvent(book.getId(), null, book);
+    }
+
+    public static BookChangedEvent updated(Integer previousGutenbergId, BookDTO book) {
+        return new BookChangedEvent(book.getId(), previousGutenbergId, book);
+    }
+
+    public static BookChangedEvent deleted(Long bookId, Integer previousGutenbergId) {
+        return new BookChangedEvent(bookId, previousGutenbergId, null);
+    }
+
+    public boolean isDeletion() {
+        return book == null;
+    }
+}
@@ -0,0 +1,345 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Token-based inverted index over title, authors and subjects. Each indexed version of a
+// book gets a new ordinal, so postings are append-only int arrays kept sorted by ordinal;
+// replaced or removed versions are tombstoned and compacted away in bulk.
+@Component
+public class BookSearchIndex implements CatalogIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    // Shorter prefixes would expand to a large share of the vocabulary
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByBookId = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private int[] downloads = new int[1024];
+    private final BitSet tombstones = new BitSet();
+    private int ordinals;
+    private int tombstoneCount;
+    private volatile boolean ready;
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            postingsByTerm.clear();
+            ordinalByBookId.clear();
+            bookIds = new long[1024];
+            downloads = new int[1024];
+            tombstones.clear();
+            ordinals = 0;
+            tombstoneCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(BookDTO book) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        tokenize(book.getTitle()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        indexedValues(book.getAuthors()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+        indexedValues(book.getSubjects()).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            tombstone(book.getId());
+            int ordinal = ordinals++;
+            if (ordinal == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, ordinal * 2);
+                downloads = Arrays.copyOf(downloads, ordinal * 2);
+            }
+            bookIds[ordinal] = book.getId();
+            downloads[ordinal] = book.getDownloadCount() != null ? book.getDownloadCount() : 0;
+            ordinalByBookId.put(book.getId(), ordinal);
+            termFrequencies.forEach((term, frequency) ->
+                    postingsByTerm.computeIfAbsent(term, t -> new Postings()).append(ordinal, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(bookId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // AND of all query terms; the last term also matches as a prefix (search-as-you-type).
+    // Returns book ids ranked by summed term frequency, then download count.
+    public List<Long> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            Postings matches = match(query);
+            if (matches == null) {
+                return Collections.emptyList();
+            }
+
+            Comparator<Integer> rank = Comparator.<Integer>comparingInt(i -> matches.frequencies[i])
+                    .thenComparingInt(i -> downloads[matches.ordinals[i]]);
+            PriorityQueue<Integer> top = new PriorityQueue<>(rank);
+            for (int i = 0; i < matches.size; i++) {
+                if (tombstones.get(matches.ordinals[i])) continue;
+                top.offer(i);
+                if (top.size() > limit) top.poll();
+            }
+
+            Long[] ranked = new Long[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = bookIds[matches.ordinals[top.poll()]];
+            }
+            return Arrays.asList(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every live book matching the query, unranked
+    public long[] matchingBookIds(String query) {
+        lock.readLock().lock();
+        try {
+            Postings matches = match(query);
+            if (matches == null) {
+                return new long[0];
+            }
+            long[] ids = new long[matches.size];
+            int n = 0;
+            for (int i = 0; i < matches.size; i++) {
+                if (!tombstones.get(matches.ordinals[i])) {
+                    ids[n++] = bookIds[matches.ordinals[i]];
+                }
+            }
+            return Arrays.copyOf(ids, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return Collections.emptyList();
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(TOKEN_SEPARATOR.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static List<String> indexedValues(List<String> values) {
+        if (values == null) return Collections.emptyList();
+        return values.stream()
+                .flatMap(value -> tokenize(value).stream())
+                .toList();
+    }
+
+    private Postings match(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) return null;
+
+        List<Postings> slots = new ArrayList<>(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            Postings slot = lookup(terms.get(i), i == terms.size() - 1);
+            if (slot == null || slot.size == 0) return null;
+            slots.add(slot);
+        }
+
+        // Intersect smallest first so the candidate set shrinks as early as possible
+        slots.sort(Comparator.comparingInt(p -> p.size));
+        Postings result = slots.get(0);
+        for (int i = 1; i < slots.size() && result.size > 0; i++) {
+            result = result.intersect(slots.get(i));
+        }
+        return result.size > 0 ? result : null;
+    }
+
+    private Postings lookup(String term, boolean prefix) {
+        if (!prefix || term.length() < MIN_PREFIX_LENGTH) {
+            return postingsByTerm.get(term);
+        }
+        List<Postings> expansions =
+                new ArrayList<>(postingsByTerm.subMap(term, true, term + Character.MAX_VALUE, true).values());
+        if (expansions.isEmpty()) return null;
+        return expansions.size() == 1 ? expansions.get(0) : Postings.union(expansions, ordinals);
+    }
+
+    private void tombstone(Long bookId) {
+        Integer previous = ordinalByBookId.remove(bookId);
+        if (previous != null && !tombstones.get(previous)) {
+            tombstones.set(previous);
+            tombstoneCount++;
+        }
+    }
+
+    // Rewrites every posting list without tombstoned ordinals once they make up a quarter of the index
+    private void compactIfNeeded() {
+        if (tombstoneCount < MIN_COMPACTION_TOMBSTONES || tombstoneCount * 4 < ordinals) return;
+
+        int[] remap = new int[ordinals];
+        int live = 0;
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            if (tombstones.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                bookIds[live] = bookIds[ordinal];
+                downloads[live] = downloads[ordinal];
+                live++;
+            }
+        }
+
+        Iterator<Postings> iterator = postingsByTerm.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            postings.remap(remap);
+            if (postings.size == 0) iterator.remove();
+        }
+        ordinalByBookId.replaceAll((bookId, ordinal) -> remap[ordinal]);
+        ordinals = live;
+        tombstones.clear();
+        tombstoneCount = 0;
+    }
+
+    // Parallel primitive arrays of ordinals (ascending) and term frequencies
+    private static final class Postings {
+        private int[] ordinals;
+        private int[] frequencies;
+        private int size;
+
+        Postings() {
+            this(new int[4], new int[4], 0);
+        }
+
+        private Postings(int[] ordinals, int[] frequencies, int size) {
+            this.ordinals = ordinals;
+            this.frequencies = frequencies;
+            this.size = size;
+        }
+
+        void append(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remap(int[] remap) {
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal < 0) continue;
+                ordinals[live] = ordinal;
+                frequencies[live] = frequencies[i];
+                live++;
+            }
+            size = live;
+        }
+
+        // Union of k lists in one pass, summing frequencies: accumulated in an array over all ordinals
+        // when the lists cover a good part of the index, otherwise k-way merged through a heap
+        static Postings union(List<Postings> lists, int ordinalCount) {
+            long total = 0;
+            for (Postings postings : lists) total += postings.size;
+            int log = 32 - Integer.numberOfLeadingZeros(lists.size());
+            return total * log >= ordinalCount ? accumulate(lists, ordinalCount) : merge(lists, (int) total);
+        }
+
+        private static Postings accumulate(List<Postings> lists, int ordinalCount) {
+            int[] accumulated = new int[ordinalCount];
+            for (Postings postings : lists) {
+                for (int i = 0; i < postings.size; i++) {
+                    accumulated[postings.ordinals[i]] += postings.frequencies[i];
+                }
+            }
+            Postings union = new Postings();
+            for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+                if (accumulated[ordinal] > 0) union.append(ordinal, accumulated[ordinal]);
+            }
+            return union;
+        }
+
+        private static Postings merge(List<Postings> lists, int total) {
+            int[] mergedOrdinals = new int[total];
+            int[] mergedFrequencies = new int[total];
+            int[] positions = new int[lists.size()];
+            PriorityQueue<Integer> heads =
+                    new PriorityQueue<>(Comparator.comparingInt(k -> lists.get(k).ordinals[positions[k]]));
+            for (int k = 0; k < lists.size(); k++) {
+                if (lists.get(k).size > 0) heads.offer(k);
+            }
+            int n = 0;
+            while (!heads.isEmpty()) {
+                int k = heads.poll();
+                Postings postings = lists.get(k);
+                int ordinal = postings.ordinals[positions[k]];
+                if (n > 0 && mergedOrdinals[n - 1] == ordinal) {
+                    mergedFrequencies[n - 1] += postings.frequencies[positions[k]];
+                } else {
+                    mergedOrdinals[n] = ordinal;
+                    mergedFrequencies[n++] = postings.frequencies[positions[k]];
+                }
+                // Re-offered only after its position moved, so the heap never sees a changed key
+                if (++positions[k] < postings.size) heads.offer(k);
+            }
+            return new Postings(mergedOrdinals, mergedFrequencies, n);
+        }
+
+        // Walks this (smaller) list and gallops through the other one
+        Postings intersect(Postings other) {
+            int[] matchedOrdinals = new int[size];
+            int[] matchedFrequencies = new int[size];
+            int n = 0, from = 0;
+            for (int i = 0; i < size && from < other.size; i++) {
+                int found = other.seek(ordinals[i], from);
+                if (found < other.size && other.ordinals[found] == ordinals[i]) {
+                    matchedOrdinals[n] = ordinals[i];
+                    matchedFrequencies[n++] = frequencies[i] + other.frequencies[found];
+                    from = found + 1;
+                } else {
+                    from = found;
+                }
+            }
+            return new Postings(matchedOrdinals, matchedFrequencies, n);
+        }
+
+        // Index of the first ordinal >= target at or after from
+        private int seek(int target, int from) {
+            int bound = 1;
+            while (from + bound < size && ordinals[from + bound] < target) {
+                bound <<= 1;
+            }
+            int found = Arrays.binarySearch(ordinals, from + (bound >> 1), Math.min(from + bound + 1, size), target);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BulkImportJobDTO;
+import com.bookcatalog.dto.BulkImportRequest;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+    // Keeps IN lists well below common JDBC driver parameter limits
+    private static final int EXISTENCE_CHECK_CHUNK = 10_000;
+    private static final int RETAINED_JOBS = 100;
+
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final GutenbergService gutenbergService;
+    private final ExecutorService fetchExecutor;
+    // Jobs run one after another; each one fans its fetches out to fetchExecutor
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, BulkImportJob> jobs = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BulkImportJob> eldest) {
+                    return size() > RETAINED_JOBS && eldest.getValue().finishedAt != null;
+                }
+            });
+    // Jobs accepted but not finished; further submissions are refused rather than queued without bound
+    private final Semaphore unfinishedJobs;
+    private final int batchSize;
+    private final int maxIds;
+
+    public BulkImportService(BookRepository bookRepository, BookService bookService,
+                             GutenbergService gutenbergService,
+                             @Qualifier("gutenbergFetchExecutor") ExecutorService fetchExecutor,
+                             @Value("${gutenberg.import.batch-size:100}") int batchSize,
+                             @Value("${gutenberg.import.max-ids:100000}") int maxIds,
+                             @Value("${gutenberg.import.max-queued-jobs:10}") int maxQueuedJobs) {
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.gutenbergService = gutenbergService;
+        this.fetchExecutor = fetchExecutor;
+        this.batchSize = batchSize;
+        this.maxIds = maxIds;
+        this.unfinishedJobs = new Semaphore(maxQueuedJobs);
+    }
+
+    // Empty when gutenberg.import.max-queued-jobs jobs are already queued or running
+    public Optional<BulkImportJobDTO> startImport(BulkImportRequest request) {
+        List<Integer> gutenbergIds = resolveIds(request);
+        if (!unfinishedJobs.tryAcquire()) {
+            return Optional.empty();
+        }
+        BulkImportJob job = new BulkImportJob(UUID.randomUUID().toString(), gutenbergIds.size());
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    run(job, gutenbergIds);
+                } finally {
+                    unfinishedJobs.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            unfinishedJobs.release();
+            throw e;
+        }
+        return Optional.of(job.toDTO());
+    }
+
+    public Optional<BulkImportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(BulkImportJob::toDTO);
+    }
+
+    private List<Integer> resolveIds(BulkImportRequest request) {
+        List<Integer> gutenbergIds;
+        if (request.getGutenbergIds() != null && !request.getGutenbergIds().isEmpty()) {
+            gutenbergIds = request.getGutenbergIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.toList());
+        } else if (request.getFromId() != null && request.getToId() != null
+                && request.getFromId() <= request.getToId()) {
+            if ((long) request.getToId() - request.getFromId() >= maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " IDs can be imported per job");
+            }
+            gutenbergIds = IntStream.rangeClosed(request.getFromId(), request.getToId())
+                    .boxed()
+                    .collect(Collectors.toList());
+        } else {
+            throw new IllegalArgumentException("Either gutenbergIds or a fromId..toId range is required");
+        }
+
+        if (gutenbergIds.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " IDs can be imported per job");
+        }
+        return gutenbergIds;
+    }
+
+    private void run(BulkImportJob job, List<Integer> gutenbergIds) {
+        job.start();
+        try {
+            List<Integer> pending = withoutExisting(gutenbergIds);
+            job.alreadyPresent.set(gutenbergIds.size() - pending.size());
+
+            // Fetch the next batch while the current one is being written
+            List<CompletableFuture<Optional<Book>>> inFlight = fetch(pending, 0);
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                List<CompletableFuture<Optional<Book>>> current = inFlight;
+                inFlight = fetch(pending, from + batchSize);
+
+                List<Book> books = current.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(Optional::stream)
+                        .collect(Collectors.toList());
+                job.fetched.addAndGet(books.size());
+                job.failed.addAndGet(current.size() - books.size());
+                if (!books.isEmpty()) {
+                    importBatch(job, books);
+                }
+            }
+            job.finish("COMPLETED");
+        } catch (RuntimeException e) {
+            log.error("Bulk import {} failed", job.id, e);
+            job.finish("FAILED");
+        }
+        log.info("Bulk import {} finished: {}/{} imported", job.id, job.imported.get(), job.requested);
+    }
+
+    // A book stored concurrently (by an import job, a create) rolls back the whole batch; its books
+    // then go in one at a time so that only the duplicate is lost
+    private void importBatch(BulkImportJob job, List<Book> books) {
+        try {
+            job.imported.addAndGet(bookService.importBatch(books));
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Bulk import {} batch failed, importing its {} books one by one: {}",
+                    job.id, books.size(), e.getMessage());
+        }
+        for (Book rolledBack : books) {
+            Integer gutenbergId = rolledBack.getGutenbergId();
+            try {
+                // Mapped afresh (from the book cache): the rolled-back entities keep their assigned ids
+                Optional<Book> book = gutenbergService.getBookFromGutenberg(gutenbergId);
+                if (book.isEmpty()) {
+                    job.failed.incrementAndGet();
+                    continue;
+                }
+                job.imported.addAndGet(bookService.importBatch(List.of(book.get())));
+            } catch (DataIntegrityViolationException e) {
+                job.alreadyPresent.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("Bulk import {} could not import Gutenberg book {}: {}", job.id, gutenbergId, e.getMessage());
+                job.failed.incrementAndGet();
+            }
+        }
+    }
+
+    // One IN query per chunk instead of one findByGutenbergId per ID
+    private List<Integer> withoutExisting(List<Integer> gutenbergIds) {
+        Set<Integer> existing = new HashSet<>();
+        for (int from = 0; from < gutenbergIds.size(); from += EXISTENCE_CHECK_CHUNK) {
+            List<Integer> chunk = gutenbergIds.subList(from, Math.min(from + EXISTENCE_CHECK_CHUNK, gutenbergIds.size()));
+            existing.addAll(bookRepository.findExistingGutenbergIds(chunk));
+        }
+        return gutenbergIds.stream()
+                .filter(gutenbergId -> !existing.contains(gutenbergId))
+                .collect(Collectors.toList());
+    }
+
+    private List<CompletableFuture<Optional<Book>>> fetch(List<Integer> pending, int from) {
+        return pending.subList(Math.min(from, pending.size()), Math.min(from + batchSize, pending.size())).stream()
+                .map(gutenbergId -> CompletableFuture
+                        .supplyAsync(() -> gutenbergService.getBookFromGutenberg(gutenbergId), fetchExecutor)
+                        .exceptionally(e -> {
+                            // Counted as failed; an open circuit breaker makes the rest fail fast
+                            log.warn("Bulk import could not fetch Gutenberg book {}: {}", gutenbergId, e.getMessage());
+                            return Optional.empty();
+                        }))
+                .collect(Collectors.toList());
+    }
+
+    private static final class BulkImportJob {
+        private final String id;
+        private final int requested;
+        private final AtomicInteger alreadyPresent = new AtomicInteger();
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String status = "QUEUED";
+
+        BulkImportJob(String id, int requested) {
+            this.id = id;
+            this.requested = requested;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            status = "RUNNING";
+        }
+
+        void finish(String finalStatus) {
+            status = finalStatus;
+            finishedAt = LocalDateTime.now();
+        }
+
+        BulkImportJobDTO toDTO() {
+            BulkImportJobDTO dto = new BulkImportJobDTO();
+            dto.setJobId(id);
+            dto.setStatus(status);
+            dto.setRequested(requested);
+            dto.setAlreadyPresent(alreadyPresent.get());
+            dto.setFetched(fetched.get());
+            dto.setImported(imported.get());
+            dto.setFailed(failed.get());
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+                dto.setBooksPerSecond(imported.get() / seconds);
+            }
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
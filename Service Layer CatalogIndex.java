@@ -0,0 +1,20 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+
+// In-memory structure derived from the books table and kept current by CatalogIndexer
+public interface CatalogIndex {
+
+    // Drops all content before a full rebuild
+    void clear();
+
+    // Adds the book, replacing any previous version with the same id
+    void index(BookDTO book);
+
+    void remove(Long bookId);
+
+    // Called once the initial build has seen every book
+    void markReady();
+
+    boolean isReady();
+}
@@ -0,0 +1,139 @@
+package com.bookcatalog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Builds every CatalogIndex from a single scan of the books table at startup and
+// applies committed BookService writes to them afterwards
+@Component
+public class CatalogIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexer.class);
+    // Far longer than an after-commit listener can lag behind the one of a later commit
+    private static final long APPLIED_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final List<CatalogIndex> indexes;
+    private final BookService bookService;
+    private final CatalogVersion catalogVersion;
+
+    // Writes committed while a build runs, applied in commit order once the scan is done and again
+    // after markReady, so a row the scan read before it was deleted or changed ends up in its final
+    // state and writers never wait for a build (SimilarBooksIndex.markReady takes seconds)
+    private List<BookChangedEvent> pendingDuringBuild;
+
+    // Guards the indexes' writes and the last applied write per book, in apply order. Listeners of
+    // two commits to one book run on their own threads and may be called in reverse order; an event
+    // older than the book's last applied one is dropped instead of leaving the older DTO indexed.
+    private final Object applyLock = new Object();
+    private final Map<Long, Applied> applied = new LinkedHashMap<>();
+
+    private record Applied(LocalDateTime updatedAt, long appliedAtNanos) {
+    }
+
+    public CatalogIndexer(List<CatalogIndex> indexes, BookService bookService, CatalogVersion catalogVersion) {
+        this.indexes = indexes;
+        this.bookService = bookService;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, "catalog-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pendingDuringBuild = new ArrayList<>();
+            indexes.forEach(CatalogIndex::clear);
+        }
+
+        long[] scanned = {0};
+        bookService.exportBooks(book -> {
+            indexes.forEach(index -> index.index(book));
+            scanned[0]++;
+        });
+
+        applyPending(false);
+        // Outside the monitor: writes committed meanwhile are only buffered
+        indexes.forEach(CatalogIndex::markReady);
+        applyPending(true);
+        catalogVersion.increment();
+        log.info("Built {} catalog indexes over {} books in {} ms",
+                indexes.size(), scanned[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        boolean buffered;
+        synchronized (this) {
+            buffered = pendingDuringBuild != null;
+            if (buffered) {
+                pendingDuringBuild.add(event);
+            }
+        }
+        if (!buffered) {
+            apply(event);
+        }
+        catalogVersion.increment();
+    }
+
+    // Applies buffered events outside the monitor until none are left; when finishing the build,
+    // stops buffering under the monitor once the buffer is empty, so no later write overtakes them
+    private void applyPending(boolean finishBuild) {
+        while (true) {
+            List<BookChangedEvent> batch;
+            synchronized (this) {
+                if (pendingDuringBuild.isEmpty()) {
+                    if (finishBuild) {
+                        pendingDuringBuild = null;
+                    }
+                    return;
+                }
+                batch = pendingDuringBuild;
+                pendingDuringBuild = new ArrayList<>();
+            }
+            batch.forEach(this::apply);
+        }
+    }
+
+    private void apply(BookChangedEvent event) {
+        // Book ids are never reused, so a deletion outranks every write to the book
+        LocalDateTime updatedAt = event.isDeletion() ? LocalDateTime.MAX : event.book().getUpdatedAt();
+        synchronized (applyLock) {
+            long now = System.nanoTime();
+            Applied last = applied.get(event.bookId());
+            if (last != null && updatedAt != null && last.updatedAt() != null
+                    && updatedAt.isBefore(last.updatedAt())) {
+                return;
+            }
+            // Re-inserted at the tail, keeping the map in apply order
+            applied.remove(event.bookId());
+            applied.put(event.bookId(), new Applied(updatedAt, now));
+            for (Iterator<Applied> eldest = applied.values().iterator(); eldest.hasNext(); ) {
+                if (now - eldest.next().appliedAtNanos() < APPLIED_RETENTION_NANOS) break;
+                eldest.remove();
+            }
+
+            if (event.isDeletion()) {
+                indexes.forEach(index -> index.remove(event.bookId()));
+            } else {
+                indexes.forEach(index -> index.index(event.book()));
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.CatalogLoadJobDTO;
+import com.bookcatalog.dto.GutendexBook;
+import com.bookcatalog.model.Author;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.model.Subject;
+import com.bookcatalog.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Loads the offline Gutenberg catalog (pg_catalog.csv from gutenberg.org/cache/epub/feeds) without
+// touching gutendex. The file is parsed record by record and written in batches, so memory stays
+// constant; after every committed batch the number of consumed records is checkpointed next to the
+// file, and a rerun skips that many records before writing again.
+@Service
+public class CatalogLoaderService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogLoaderService.class);
+    private static final int RETAINED_JOBS = 100;
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final Pattern LIST_SEPARATOR = Pattern.compile(";\\s*");
+    // Trailing life dates ("Dickens, Charles, 1812-1870") and roles ("[Editor]") in the Authors column
+    private static final Pattern AUTHOR_DATES = Pattern.compile(",\\s*[^,]*\\d[^,]*$");
+    private static final Pattern AUTHOR_ROLE = Pattern.compile("\\s*\\[[^]]*]\\s*$");
+    private static final String COVER_URL = "https://www.gutenberg.org/cache/epub/%d/pg%d.cover.medium.jpg";
+
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final GutenbergService gutenbergService;
+    private final Path directory;
+    private final int batchSize;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, CatalogLoadJob> jobs = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CatalogLoadJob> eldest) {
+                    return size() > RETAINED_JOBS && eldest.getValue().finishedAt != null;
+                }
+            });
+
+    public CatalogLoaderService(BookRepository bookRepository, BookService bookService,
+                                GutenbergService gutenbergService,
+                                @Value("${gutenberg.catalog.directory:./catalog}") Path directory,
+                                @Value("${gutenberg.catalog.batch-size:1000}") int batchSize) {
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.gutenbergService = gutenbergService;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    // Only files inside the configured catalog directory can be loaded
+    public CatalogLoadJobDTO startLoad(String fileName, boolean resume) {
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No catalog file " + fileName + " in " + directory);
+        }
+        CatalogLoadJob job = new CatalogLoadJob(UUID.randomUUID().toString(), directory.relativize(file).toString());
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> run(job, file, resume));
+        return job.toDTO();
+    }
+
+    public Optional<CatalogLoadJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(CatalogLoadJob::toDTO);
+    }
+
+    private void run(CatalogLoadJob job, Path file, boolean resume) {
+        job.start();
+        Path checkpoint = file.resolveSibling(file.getFileName() + CHECKPOINT_SUFFIX);
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = csv.header();
+            long skip = resume ? readCheckpoint(checkpoint) : 0;
+            job.resumedFrom = skip;
+
+            long consumed = 0;
+            List<GutendexBook> batch = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                consumed++;
+                if (consumed <= skip) continue;
+                job.recordsRead++;
+
+                GutendexBook book = toGutendexBook(record, columns);
+                if (book == null) {
+                    job.skipped++;
+                } else {
+                    batch.add(book);
+                }
+                if (batch.size() == batchSize) {
+                    write(job, batch);
+                    writeCheckpoint(checkpoint, consumed);
+                }
+            }
+            write(job, batch);
+            Files.deleteIfExists(checkpoint);
+            job.finish("COMPLETED");
+        } catch (IOException | RuntimeException e) {
+            log.error("Catalog load {} of {} failed", job.id, file, e);
+            job.finish("FAILED");
+        }
+        log.info("Catalog load {} finished: {} of {} records imported", job.id, job.imported, job.recordsRead);
+    }
+
+    // One IN query for the batch, then a single batched insert of the new books. A batch that fails
+    // is written again one book at a time, and the books that still fail are counted and skipped,
+    // so one bad record cannot stop the load (and every resume) at the same batch.
+    private void write(CatalogLoadJob job, List<GutendexBook> batch) {
+        if (batch.isEmpty()) return;
+        Set<Integer> existing = new HashSet<>(bookRepository.findExistingGutenbergIds(
+                batch.stream().map(GutendexBook::id).collect(Collectors.toList())));
+        Set<Integer> seen = new HashSet<>();
+        List<GutendexBook> pending = batch.stream()
+                .filter(book -> !existing.contains(book.id()) && seen.add(book.id()))
+                .collect(Collectors.toList());
+        job.alreadyPresent += batch.size() - pending.size();
+        batch.clear();
+        if (pending.isEmpty()) return;
+
+        try {
+            job.imported += bookService.importBatch(
+                    pending.stream().map(gutenbergService::mapToBook).collect(Collectors.toList()));
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Catalog load {} batch failed, writing its {} books one by one: {}",
+                    job.id, pending.size(), e.getMessage());
+        }
+        for (GutendexBook source : pending) {
+            try {
+                // Mapped afresh: the rolled-back entities keep their assigned ids
+                job.imported += bookService.importBatch(List.of(gutenbergService.mapToBook(source)));
+            } catch (DataIntegrityViolationException e) {
+                if (bookRepository.findExistingGutenbergIds(List.of(source.id())).isEmpty()) {
+                    log.warn("Catalog load {} skipped Gutenberg book {}: {}",
+                            job.id, source.id(), e.getMostSpecificCause().getMessage());
+                    job.failed++;
+                } else {
+                    job.alreadyPresent++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Catalog load {} skipped Gutenberg book {}: {}", job.id, source.id(), e.getMessage());
+                job.failed++;
+            }
+        }
+    }
+
+    // Maps one CSV record onto the gutendex shape so mapToBook applies the usual field rules.
+    // Values longer than their columns are cut to fit. Returns null for records without a numeric
+    // id or a title.
+    private static GutendexBook toGutendexBook(List<String> record, Map<String, Integer> columns) {
+        Integer id = parseId(column(record, columns, "Text#"));
+        String title = column(record, columns, "Title");
+        if (id == null || title == null) return null;
+
+        List<GutendexBook.Person> authors = split(column(record, columns, "Authors")).stream()
+                .filter(author -> !AUTHOR_ROLE.matcher(author).find())
+                .map(author -> truncate(AUTHOR_DATES.matcher(author).replaceFirst(""), Author.NAME_LENGTH))
+                .map(GutendexBook.Person::new)
+                .collect(Collectors.toList());
+        return new GutendexBook(id, truncate(title, Book.TITLE_LENGTH), authors,
+                truncateAll(split(column(record, columns, "Subjects")), Subject.NAME_LENGTH),
+                truncateAll(split(column(record, columns, "Bookshelves")), Book.BOOKSHELF_LENGTH),
+                truncateAll(split(column(record, columns, "Language")), Book.CODE_LENGTH),
+                truncate(column(record, columns, "Type"), Book.CODE_LENGTH),
+                null,
+                new GutendexBook.Formats(String.format(COVER_URL, id, id)));
+    }
+
+    private static String truncate(String value, int length) {
+        return value != null && value.length() > length ? value.substring(0, length).trim() : value;
+    }
+
+    private static List<String> truncateAll(List<String> values, int length) {
+        return values.stream().map(value -> truncate(value, length)).toList();
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) return null;
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) return List.of();
+        return Arrays.stream(LIST_SEPARATOR.split(value))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .toList();
+    }
+
+    private static Integer parseId(String value) {
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) return 0;
+        return Long.parseLong(Files.readString(checkpoint).trim());
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a torn checkpoint
+    private static void writeCheckpoint(Path checkpoint, long consumed) throws IOException {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.writeString(temporary, Long.toString(consumed));
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // RFC 4180 records: quoted fields may contain separators, doubled quotes and line breaks
+    private static final class CsvReader implements AutoCloseable {
+        private final Reader reader;
+        private final StringBuilder field = new StringBuilder();
+
+        CsvReader(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        }
+
+        Map<String, Integer> header() throws IOException {
+            List<String> names = next();
+            if (names == null) throw new IOException("Catalog file is empty");
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).replace("\uFEFF", "").trim(), i);
+            }
+            return columns;
+        }
+
+        List<String> next() throws IOException {
+            List<String> record = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!any) return null;
+            record.add(field.toString());
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class CatalogLoadJob {
+        private final String id;
+        private final String file;
+        // Written only by the loader thread
+        private volatile long resumedFrom;
+        private volatile long recordsRead;
+        private volatile long alreadyPresent;
+        private volatile long imported;
+        private volatile long skipped;
+        private volatile long failed;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String status = "QUEUED";
+
+        CatalogLoadJob(String id, String file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            status = "RUNNING";
+        }
+
+        void finish(String finalStatus) {
+            status = finalStatus;
+            finishedAt = LocalDateTime.now();
+        }
+
+        CatalogLoadJobDTO toDTO() {
+            CatalogLoadJobDTO dto = new CatalogLoadJobDTO();
+            dto.setJobId(id);
+            dto.setFile(file);
+            dto.setStatus(status);
+            dto.setResumedFrom(resumedFrom);
+            dto.setRecordsRead(recordsRead);
+            dto.setAlreadyPresent(alreadyPresent);
+            dto.setImported(imported);
+            dto.setSkipped(skipped);
+            dto.setFailed(failed);
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+                dto.setBooksPerSecond(imported / seconds);
+            }
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
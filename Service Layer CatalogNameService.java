@@ -0,0 +1,117 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.model.Author;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.model.Subject;
+import com.bookcatalog.repository.AuthorRepository;
+import com.bookcatalog.repository.SubjectRepository;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Swaps the placeholder authors and subjects that Book.setAuthors/setSubjects attach for the
+// stored rows, creating the names that do not exist yet. Names are looked up with one IN query
+// per chunk across all given books, so a batch import costs a handful of statements, not one per name.
+// Missing names are inserted in the caller's transaction with an insert-if-absent batch, then read
+// back. Writers running concurrently (import workers, bulk and catalog imports, the sync, batch
+// requests) that create the same name meet on the unique index: the insert waits for the other
+// transaction, and if that one committed the name first, the statement fails alone and the name is
+// re-read. The inserts go through JDBC on the transaction's connection, so a failed one rolls back
+// only its statement instead of marking the whole JPA transaction rollback-only.
+@Service
+public class CatalogNameService {
+
+    // Keeps IN lists well below common JDBC driver parameter limits
+    private static final int LOOKUP_CHUNK = 1000;
+    // Each lost race removes at least one name from the ones left to create
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+    // Ids come straight from the entity's sequence: every value it hands out lies outside the
+    // blocks Hibernate's pooled optimizer allocates from it
+    private static final String INSERT_AUTHOR = "INSERT INTO authors (id, name, name_lower) "
+            + "SELECT NEXT VALUE FOR author_seq, ?, ? WHERE NOT EXISTS (SELECT 1 FROM authors WHERE name_lower = ?)";
+    private static final String INSERT_SUBJECT = "INSERT INTO subjects (id, name, name_lower) "
+            + "SELECT NEXT VALUE FOR subject_seq, ?, ? WHERE NOT EXISTS (SELECT 1 FROM subjects WHERE name_lower = ?)";
+
+    private final AuthorRepository authorRepository;
+    private final SubjectRepository subjectRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogNameService(AuthorRepository authorRepository, SubjectRepository subjectRepository,
+                              JdbcTemplate jdbcTemplate) {
+        this.authorRepository = authorRepository;
+        this.subjectRepository = subjectRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Must run before the books are attached to the persistence context
+    @Transactional
+    public void resolve(Collection<Book> books) {
+        resolve(books, Book::getAuthorRefs, Author::getId, Author::getName, Author::getNameLower,
+                authorRepository::findByNameLowerIn, INSERT_AUTHOR);
+        resolve(books, Book::getSubjectRefs, Subject::getId, Subject::getName, Subject::getNameLower,
+                subjectRepository::findByNameLowerIn, INSERT_SUBJECT);
+    }
+
+    private <T> void resolve(Collection<Book> books, Function<Book, List<T>> refs,
+                             Function<T, Long> id, Function<T, String> name, Function<T, String> key,
+                             Function<Collection<String>, List<T>> lookup, String insert) {
+        Map<String, T> stored = new HashMap<>();
+        // The first spelling seen for a name is the one that gets stored
+        Map<String, T> placeholders = new LinkedHashMap<>();
+        for (Book book : books) {
+            for (T ref : refs.apply(book)) {
+                if (id.apply(ref) != null) {
+                    stored.putIfAbsent(key.apply(ref), ref);
+                } else {
+                    placeholders.putIfAbsent(key.apply(ref), ref);
+                }
+            }
+        }
+        placeholders.keySet().removeAll(stored.keySet());
+        if (placeholders.isEmpty()) return;
+
+        load(placeholders.keySet(), key, lookup, stored);
+        for (int attempt = 1; ; attempt++) {
+            // In key order, so two writers creating overlapping names wait on them in the same order
+            List<T> missing = placeholders.values().stream()
+                    .filter(ref -> !stored.containsKey(key.apply(ref)))
+                    .sorted(Comparator.comparing(key))
+                    .toList();
+            if (missing.isEmpty()) break;
+            try {
+                jdbcTemplate.batchUpdate(insert, missing, missing.size(), (statement, ref) -> {
+                    statement.setString(1, name.apply(ref));
+                    statement.setString(2, key.apply(ref));
+                    statement.setString(3, key.apply(ref));
+                });
+            } catch (DataAccessException e) {
+                // Another transaction committed one of these names first
+                if (attempt == MAX_CREATE_ATTEMPTS) throw e;
+            }
+            // Read back through JPA, so the rows are managed in the caller's persistence context
+            load(missing.stream().map(key).toList(), key, lookup, stored);
+        }
+
+        // Names differing only in case collapse onto one row, listed once per book
+        for (Book book : books) {
+            List<T> bookRefs = refs.apply(book);
+            Set<T> resolved = new LinkedHashSet<>();
+            bookRefs.forEach(ref -> resolved.add(stored.get(key.apply(ref))));
+            bookRefs.clear();
+            bookRefs.addAll(resolved);
+        }
+    }
+
+    private static <T> void load(Collection<String> keys, Function<T, String> key,
+                                 Function<Collection<String>, List<T>> lookup, Map<String, T> stored) {
+        List<String> names = new ArrayList<>(keys);
+        for (int from = 0; from < names.size(); from += LOOKUP_CHUNK) {
+            lookup.apply(names.subList(from, Math.min(from + LOOKUP_CHUNK, names.size())))
+                    .forEach(ref -> stored.put(key.apply(ref), ref));
+        }
+    }
+}
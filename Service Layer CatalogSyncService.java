@@ -0,0 +1,186 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.CatalogSyncRunDTO;
+import com.bookcatalog.dto.GutendexBook;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Refreshes download counts and metadata from gutendex. Stored gutenbergIds are walked in id order,
+// 32 at a time (one gutendex page per "ids=" request), and only books whose fields differ are
+// updated. Requests are paced to gutenberg.sync.requests-per-minute so a full pass never bursts.
+@Service
+public class CatalogSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSyncService.class);
+    private static final int IDS_PER_REQUEST = 32;
+
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final GutenbergService gutenbergService;
+    private final long requestIntervalNanos;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile SyncRun lastRun;
+
+    public CatalogSyncService(BookRepository bookRepository, BookService bookService,
+                              GutenbergService gutenbergService,
+                              @Value("${gutenberg.sync.requests-per-minute:30}") int requestsPerMinute) {
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.gutenbergService = gutenbergService;
+        this.requestIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, requestsPerMinute);
+    }
+
+    // "-" disables the schedule; POST /api/books/sync still starts a run on demand. The run goes to
+    // the sync's own thread, so a pass of several hours does not hold up the other scheduled tasks.
+    @Scheduled(cron = "${gutenberg.sync.cron:0 0 3 * * *}")
+    public void scheduledSync() {
+        if (startSync().isEmpty()) {
+            log.info("Skipping scheduled catalog sync, a run is still in progress");
+        }
+    }
+
+    // Runs on the sync thread; empty when a run is already in progress
+    public Optional<CatalogSyncRunDTO> startSync() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        SyncRun run = new SyncRun();
+        lastRun = run;
+        runner.execute(() -> run(run));
+        return Optional.of(run.toDTO());
+    }
+
+    // The current run, or the last finished one
+    public Optional<CatalogSyncRunDTO> getLastRun() {
+        return Optional.ofNullable(lastRun).map(SyncRun::toDTO);
+    }
+
+    private void run(SyncRun run) {
+        run.start();
+        try {
+            Integer after = 0;
+            long nextRequestAt = System.nanoTime();
+            List<Integer> gutenbergIds;
+            while (!(gutenbergIds = bookRepository.findGutenbergIdsAfter(after, PageRequest.of(0, IDS_PER_REQUEST))).isEmpty()) {
+                after = gutenbergIds.get(gutenbergIds.size() - 1);
+                pace(nextRequestAt);
+                nextRequestAt = System.nanoTime() + requestIntervalNanos;
+
+                long start = System.nanoTime();
+                List<GutendexBook> upstream;
+                try {
+                    upstream = gutenbergService.getBooksFromGutenberg(gutenbergIds);
+                } catch (GutendexUnavailableException e) {
+                    run.recordRequest(System.nanoTime() - start, false);
+                    if (e.getRetryAfter() != null && !e.getRetryAfter().isZero()) {
+                        // Circuit breaker is open: the remaining requests would all fail fast
+                        throw e;
+                    }
+                    log.warn("Catalog sync skipped Gutenberg ids {}..{}: {}",
+                            gutenbergIds.get(0), after, e.getMessage());
+                    continue;
+                }
+                run.recordRequest(System.nanoTime() - start, true);
+
+                run.booksChecked += gutenbergIds.size();
+                run.missingUpstream += gutenbergIds.size() - upstream.size();
+                List<Book> books = upstream.stream()
+                        .map(gutenbergService::mapToBook)
+                        .collect(Collectors.toList());
+                run.booksChanged += bookService.applyGutenbergChanges(books);
+            }
+            run.finish("COMPLETED");
+        } catch (RuntimeException e) {
+            log.error("Catalog sync failed", e);
+            run.finish("FAILED");
+        } finally {
+            running.set(false);
+        }
+        log.info("Catalog sync finished: {} books checked, {} changed, {} requests in {} ms",
+                run.booksChecked, run.booksChanged, run.requests, run.toDTO().getElapsedMs());
+    }
+
+    private static void pace(long nextRequestAt) {
+        long wait = nextRequestAt - System.nanoTime();
+        if (wait <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pacing the catalog sync", e);
+        }
+    }
+
+    private static final class SyncRun {
+        // Written only by the thread executing the run
+        private volatile long booksChecked;
+        private volatile long booksChanged;
+        private volatile long missingUpstream;
+        private volatile long requests;
+        private volatile long failedRequests;
+        private volatile long totalLatencyNanos;
+        private volatile long maxLatencyNanos;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String status = "QUEUED";
+
+        void start() {
+            startedAt = LocalDateTime.now();
+            status = "RUNNING";
+        }
+
+        void finish(String finalStatus) {
+            status = finalStatus;
+            finishedAt = LocalDateTime.now();
+        }
+
+        void recordRequest(long latencyNanos, boolean succeeded) {
+            requests++;
+            if (!succeeded) failedRequests++;
+            totalLatencyNanos += latencyNanos;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+        }
+
+        CatalogSyncRunDTO toDTO() {
+            CatalogSyncRunDTO dto = new CatalogSyncRunDTO();
+            dto.setStatus(status);
+            dto.setBooksChecked(booksChecked);
+            dto.setBooksChanged(booksChanged);
+            dto.setMissingUpstream(missingUpstream);
+            dto.setRequests(requests);
+            dto.setFailedRequests(failedRequests);
+            if (requests > 0) {
+                dto.setAverageUpstreamLatencyMs(totalLatencyNanos / 1e6 / requests);
+            }
+            dto.setMaxUpstreamLatencyMs(TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos));
+            if (startedAt != null) {
+                LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+                dto.setElapsedMs(Duration.between(startedAt, end).toMillis());
+            }
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bookcatalog.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Changes whenever any list, search or facet response may have changed, so it can serve as their
+// ETag. The startup timestamp keeps versions from one run from matching those of the next.
+// CatalogIndexer moves it on, once a committed write has reached every in-memory index: a version
+// that changed earlier could be cached by clients together with the old content.
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    // After every write applied to the indexes, and when reads switch over from the database
+    // fallback to the built indexes
+    public void increment() {
+        counter.incrementAndGet();
+    }
+
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Size-bounded (W-TinyLFU) cache with a TTL where concurrent misses on the same key share a
+// single load. The load runs on the first caller's thread; later callers wait on its future.
+// Failed loads are not cached.
+public class CoalescingCache<K, V> {
+
+    private final String name;
+    private final AsyncCache<K, V> cache;
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingCache(String name, long maximumSize, Duration timeToLive) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        CompletableFuture<V> cached = cache.getIfPresent(key);
+        if (cached == null) {
+            CompletableFuture<V> loading = new CompletableFuture<>();
+            cached = cache.asMap().putIfAbsent(key, loading);
+            if (cached == null) {
+                try {
+                    loading.complete(loader.get());
+                } catch (RuntimeException e) {
+                    loading.completeExceptionally(e);
+                    cache.asMap().remove(key, loading);
+                    throw e;
+                }
+                cached = loading;
+            } else {
+                coalesced.increment();
+            }
+        }
+
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Standard cache.* meters tagged with the cache name, plus the coalesced-load count
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), name);
+        FunctionCounter.builder("cache.coalesced", coalesced, LongAdder::sum)
+                .tag("cache", name)
+                .description("Misses that waited for a load already in progress")
+                .register(registry);
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.synchronous().stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(name);
+        dto.setSize(cache.synchronous().estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setCoalescedCount(coalesced.sum());
+        return dto;
+    }
+}
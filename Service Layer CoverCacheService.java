@@ -0,0 +1,419 @@
+package com.bookcatalog.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Proxies book covers so clients stop fetching them from gutenberg.org on every page view. Each
+// cover URL is downloaded once into a content-addressed store under gutenberg.covers.directory:
+// blobs/<sha-256 of the image> holds the bytes, links/<sha-256 of the URL> names the blob and the
+// media type. Identical images are stored once, and the store survives restarts. Blobs are
+// evicted least recently used first once they exceed gutenberg.covers.max-size; a link to an
+// evicted blob is downloaded again on its next request. A blob handed out by getCover is leased
+// for a minute and not evicted meanwhile: the response may only open the file after the
+// controller returned (Tomcat's sendfile, the streamed transferTo), and once open the file can be
+// deleted without cutting the response short.
+@Service
+public class CoverCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CoverCacheService.class);
+    private static final int MAX_REDIRECTS = 3;
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+    private static final long SERVING_LEASE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // A stored cover; contentHash doubles as a strong ETag
+    public record Cover(Path file, String contentHash, long size, String contentType) {
+    }
+
+    private record Link(String contentHash, String contentType) {
+    }
+
+    private final Path blobs;
+    private final Path links;
+    private final long maxBytes;
+    private final long maxImageBytes;
+    private final Set<String> allowedHosts;
+    private final Duration readTimeout;
+    private final boolean warmUp;
+    // Redirects are followed by hand so that every hop is checked against the allowed hosts
+    private final HttpClient httpClient;
+    private final Map<String, Link> linksByUrl = new ConcurrentHashMap<>();
+    // Blob hash -> size in access order; guarded by this
+    private final LinkedHashMap<String, Long> blobSizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long storedBytes;
+    // Blob hash -> System.nanoTime() until which it may not be evicted; guarded by this
+    private final Map<String, Long> leases = new HashMap<>();
+    // Concurrent requests for the same missing cover share one download
+    private final Map<String, CompletableFuture<Cover>> downloads = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor warmUpExecutor;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter failures;
+    private final Counter evictions;
+    private final Counter warmUpsDropped;
+
+    public CoverCacheService(MeterRegistry meterRegistry,
+                             @Value("${gutenberg.covers.directory:./covers}") Path directory,
+                             @Value("${gutenberg.covers.max-size:1GB}") DataSize maxSize,
+                             @Value("${gutenberg.covers.max-image-size:5MB}") DataSize maxImageSize,
+                             @Value("${gutenberg.covers.allowed-hosts:www.gutenberg.org,gutenberg.org}") List<String> allowedHosts,
+                             @Value("${gutenberg.covers.warm-up:true}") boolean warmUp,
+                             @Value("${gutenberg.covers.warm-up-queue:10000}") int warmUpQueue,
+                             @Value("${gutenberg.http.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${gutenberg.http.read-timeout:5s}") Duration readTimeout) {
+        Path root = directory.toAbsolutePath().normalize();
+        this.blobs = root.resolve("blobs");
+        this.links = root.resolve("links");
+        this.maxBytes = maxSize.toBytes();
+        this.maxImageBytes = maxImageSize.toBytes();
+        this.allowedHosts = allowedHosts.stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.readTimeout = readTimeout;
+        this.warmUp = warmUp;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.hits = Counter.builder("covers.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("covers.requests").tag("result", "miss").register(meterRegistry);
+        this.failures = Counter.builder("covers.downloads.failed").register(meterRegistry);
+        this.evictions = Counter.builder("covers.evictions").register(meterRegistry);
+        this.warmUpsDropped = Counter.builder("covers.warmup.dropped")
+                .description("Warm-up downloads skipped because the queue was full")
+                .register(meterRegistry);
+        // Downloads one cover at a time so that warming up never competes with page views
+        this.warmUpExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, warmUpQueue)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cover-warm-up");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> warmUpsDropped.increment());
+        Gauge.builder("covers.store.size", this, CoverCacheService::getStoredBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        loadStore();
+    }
+
+    // Empty when there is no cover URL or its host may not be proxied.
+    // Throws CoverUnavailableException when the cover is not stored and cannot be downloaded.
+    public Optional<Cover> getCover(String coverUrl) {
+        URI uri = allowedUri(coverUrl);
+        if (uri == null) {
+            return Optional.empty();
+        }
+        Cover stored = stored(uri.toString());
+        if (stored != null) {
+            hits.increment();
+            return Optional.of(stored);
+        }
+        misses.increment();
+        return Optional.of(download(uri));
+    }
+
+    // Fallback when the container cannot send the file itself (see BookController.getCover):
+    // FileChannel.transferTo into the response stream, without reading the file onto the heap first
+    public void transferTo(Cover cover, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(cover.file(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    // Starts downloading the covers of created and updated books in the background,
+    // so imports leave the covers ready before anyone asks for them
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!warmUp || event.isDeletion() || event.book().getCoverUrl() == null) return;
+        String coverUrl = event.book().getCoverUrl();
+        warmUpExecutor.execute(() -> {
+            try {
+                getCover(coverUrl);
+            } catch (RuntimeException e) {
+                log.debug("Cover warm-up of {} failed: {}", coverUrl, e.getMessage());
+            }
+        });
+    }
+
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    private URI allowedUri(String coverUrl) {
+        if (coverUrl == null || coverUrl.isBlank()) return null;
+        try {
+            URI uri = new URI(coverUrl.trim());
+            return isAllowed(uri) ? uri : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private boolean isAllowed(URI uri) {
+        String scheme = uri.getScheme();
+        return ("https".equalsIgnoreCase(scheme) || "http".equalsIgnoreCase(scheme))
+                && uri.getHost() != null
+                && uri.getRawUserInfo() == null
+                && allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+    }
+
+    private Cover stored(String url) {
+        Link link = linksByUrl.get(url);
+        if (link == null) {
+            link = readLink(url);
+            if (link == null) return null;
+            linksByUrl.put(url, link);
+        }
+        Long size;
+        synchronized (this) {
+            size = blobSizes.get(link.contentHash());
+            if (size != null) lease(link.contentHash());
+        }
+        return size != null ? new Cover(blobPath(link.contentHash()), link.contentHash(), size, link.contentType()) : null;
+    }
+
+    private Cover download(URI uri) {
+        String url = uri.toString();
+        CompletableFuture<Cover> loading = new CompletableFuture<>();
+        CompletableFuture<Cover> inFlight = downloads.putIfAbsent(url, loading);
+        if (inFlight == null) {
+            try {
+                Cover cover = fetch(uri);
+                loading.complete(cover);
+                return cover;
+            } catch (RuntimeException e) {
+                failures.increment();
+                loading.completeExceptionally(e);
+                throw e;
+            } finally {
+                downloads.remove(url, loading);
+            }
+        }
+        Cover cover;
+        try {
+            cover = inFlight.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        synchronized (this) {
+            if (blobSizes.containsKey(cover.contentHash())) {
+                lease(cover.contentHash());
+                return cover;
+            }
+        }
+        // Evicted since it was stored: rare enough to simply download it again
+        return download(uri);
+    }
+
+    private Cover fetch(URI uri) {
+        URI target = uri;
+        for (int redirects = 0; ; redirects++) {
+            HttpRequest request = HttpRequest.newBuilder(target).timeout(readTimeout).GET().build();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                throw new CoverUnavailableException("Could not download cover " + uri, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CoverUnavailableException("Interrupted while downloading cover " + uri, e);
+            }
+
+            try (InputStream body = response.body()) {
+                int status = response.statusCode();
+                if (status >= 300 && status < 400 && status != 304) {
+                    URI location = response.headers().firstValue("Location").map(target::resolve).orElse(null);
+                    if (location == null || !isAllowed(location) || redirects == MAX_REDIRECTS) {
+                        throw new CoverUnavailableException("Cover " + uri + " redirects to " + location, null);
+                    }
+                    target = location;
+                    continue;
+                }
+                if (status != 200) {
+                    throw new CoverUnavailableException("Cover " + uri + " answered " + status, null);
+                }
+                String contentType = response.headers().firstValue("Content-Type").orElse("");
+                if (!contentType.toLowerCase(Locale.ROOT).startsWith("image/")) {
+                    throw new CoverUnavailableException("Cover " + uri + " is not an image: " + contentType, null);
+                }
+                return store(uri.toString(), body, contentType);
+            } catch (IOException e) {
+                throw new CoverUnavailableException("Could not store cover " + uri, e);
+            }
+        }
+    }
+
+    // Hashes while writing to a temporary file, then moves it into place under its hash
+    private Cover store(String url, InputStream body, String contentType) throws IOException {
+        Path temporary = Files.createTempFile(blobs, "download-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxImageBytes) {
+                        throw new CoverUnavailableException("Cover " + url + " is larger than " + maxImageBytes + " bytes", null);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path blob = blobPath(hash);
+            Files.createDirectories(blob.getParent());
+            // The same image downloaded twice at once ends up as the same blob
+            Files.move(temporary, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Link link = new Link(hash, contentType);
+            writeLink(url, link);
+            linksByUrl.put(url, link);
+            record(hash, size);
+            return new Cover(blob, hash, size, contentType);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Guarded by this
+    private void lease(String hash) {
+        leases.put(hash, System.nanoTime() + SERVING_LEASE_NANOS);
+    }
+
+    // The blob just stored is leased to its downloader and always stays; so do blobs being served,
+    // which leaves the store above max-size until a later download finds their leases expired
+    private synchronized void record(String hash, long size) {
+        if (blobSizes.put(hash, size) == null) {
+            storedBytes += size;
+        }
+        long now = System.nanoTime();
+        leases.values().removeIf(until -> until - now <= 0);
+        lease(hash);
+        Iterator<Map.Entry<String, Long>> eldest = blobSizes.entrySet().iterator();
+        while (storedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (leases.containsKey(entry.getKey())) continue;
+            try {
+                Files.deleteIfExists(blobPath(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Could not evict cover {}", entry.getKey(), e);
+                continue;
+            }
+            storedBytes -= entry.getValue();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Rebuilds the size accounting from the blobs on disk, oldest modification first
+    private void loadStore() {
+        try {
+            Files.createDirectories(blobs);
+            Files.createDirectories(links);
+            List<Map.Entry<Path, BasicFileAttributes>> stored = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(blobs, 2)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (!attributes.isRegularFile()) continue;
+                    if (file.getFileName().toString().endsWith(".tmp")) {
+                        Files.deleteIfExists(file);
+                    } else {
+                        stored.add(Map.entry(file, attributes));
+                    }
+                }
+            }
+            stored.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+            long total = 0;
+            synchronized (this) {
+                for (Map.Entry<Path, BasicFileAttributes> entry : stored) {
+                    blobSizes.put(entry.getKey().getFileName().toString(), entry.getValue().size());
+                    total += entry.getValue().size();
+                }
+                storedBytes = total;
+            }
+            log.info("Cover cache holds {} covers ({} bytes) in {}", stored.size(), total, blobs.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the cover cache in " + blobs.getParent(), e);
+        }
+    }
+
+    private Link readLink(String url) {
+        Path file = links.resolve(hash(url));
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            return lines.size() >= 2 ? new Link(lines.get(0), lines.get(1)) : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cover link {}", file, e);
+            return null;
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a torn link
+    private void writeLink(String url, Link link) throws IOException {
+        Path file = links.resolve(hash(url));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, link.contentHash() + "\n" + link.contentType() + "\n", StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Two-character fan-out keeps directories small
+    private Path blobPath(String hash) {
+        return blobs.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static String hash(String value) {
+        return HexFormat.of().formatHex(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
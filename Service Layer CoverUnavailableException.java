@@ -0,0 +1,10 @@
+package com.bookcatalog.service;
+
+// A cover could not be downloaded: the upstream failed, answered with something other than an
+// image, redirected to a host that is not allowed, or sent more than gutenberg.covers.max-image-size
+public class CoverUnavailableException extends RuntimeException {
+
+    public CoverUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
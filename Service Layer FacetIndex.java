@@ -0,0 +1,232 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.BookFacetsDTO;
+import com.bookcatalog.dto.FacetCountDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Dictionary-encoded facet values per book plus catalog-wide counts that are maintained on every
+// write, so unscoped facets are a top-K over ready-made counters and scoped facets a single pass
+// over the matching books' codes.
+@Component
+public class FacetIndex implements CatalogIndex {
+
+    private static final int LANGUAGE = 0;
+    private static final int AUTHOR = 1;
+    private static final int SUBJECT = 2;
+    private static final int BOOKSHELF = 3;
+    // Scoped counts go into a map when the books hold fewer than 1/8 as many codes as the dictionary
+    private static final int SPARSE_RATIO = 8;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary[] dictionaries = new Dictionary[4];
+    // Per book, one array of distinct value codes per facet
+    private final Map<Long, int[][]> codesByBook = new HashMap<>();
+    private volatile boolean ready;
+
+    public FacetIndex() {
+        Arrays.setAll(dictionaries, facet -> new Dictionary());
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            codesByBook.clear();
+            Arrays.setAll(dictionaries, facet -> new Dictionary());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(BookDTO book) {
+        lock.writeLock().lock();
+        try {
+            unindex(book.getId());
+            int[][] codes = new int[4][];
+            codes[LANGUAGE] = dictionaries[LANGUAGE].encode(
+                    book.getLanguage() != null ? List.of(book.getLanguage()) : List.of());
+            codes[AUTHOR] = dictionaries[AUTHOR].encode(book.getAuthors());
+            codes[SUBJECT] = dictionaries[SUBJECT].encode(book.getSubjects());
+            codes[BOOKSHELF] = dictionaries[BOOKSHELF].encode(book.getBookshelves());
+            for (int facet = 0; facet < codes.length; facet++) {
+                dictionaries[facet].add(codes[facet], 1);
+            }
+            codesByBook.put(book.getId(), codes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            unindex(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public BookFacetsDTO facets(int limit) {
+        lock.readLock().lock();
+        try {
+            List<List<FacetCountDTO>> ranked = new ArrayList<>(dictionaries.length);
+            for (Dictionary dictionary : dictionaries) {
+                ranked.add(dictionary.top(dictionary.counts(), limit));
+            }
+            return toDTO(codesByBook.size(), ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Counts only over the given books, in one pass over their codes
+    public BookFacetsDTO facets(long[] bookIds, int limit) {
+        lock.readLock().lock();
+        try {
+            List<int[][]> matched = new ArrayList<>(bookIds.length);
+            long[] occurrences = new long[dictionaries.length];
+            for (long bookId : bookIds) {
+                int[][] codes = codesByBook.get(bookId);
+                if (codes == null) continue;
+                matched.add(codes);
+                for (int facet = 0; facet < codes.length; facet++) {
+                    occurrences[facet] += codes[facet].length;
+                }
+            }
+            List<List<FacetCountDTO>> ranked = new ArrayList<>(dictionaries.length);
+            for (int facet = 0; facet < dictionaries.length; facet++) {
+                ranked.add(scopedTop(facet, matched, occurrences[facet], limit));
+            }
+            return toDTO(matched.size(), ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A counter array over the whole dictionary only pays off when the books use a good share of its
+    // values; a narrow search over the large author and subject vocabularies counts into a map instead
+    private List<FacetCountDTO> scopedTop(int facet, List<int[][]> matched, long occurrences, int limit) {
+        Dictionary dictionary = dictionaries[facet];
+        if (occurrences * SPARSE_RATIO >= dictionary.size()) {
+            long[] counts = new long[dictionary.size()];
+            for (int[][] codes : matched) {
+                for (int code : codes[facet]) {
+                    counts[code]++;
+                }
+            }
+            return dictionary.top(counts, limit);
+        }
+        Map<Integer, Long> counts = new HashMap<>();
+        for (int[][] codes : matched) {
+            for (int code : codes[facet]) {
+                counts.merge(code, 1L, Long::sum);
+            }
+        }
+        return dictionary.top(counts, limit);
+    }
+
+    private void unindex(Long bookId) {
+        int[][] previous = codesByBook.remove(bookId);
+        if (previous != null) {
+            for (int facet = 0; facet < previous.length; facet++) {
+                dictionaries[facet].add(previous[facet], -1);
+            }
+        }
+    }
+
+    private static BookFacetsDTO toDTO(long total, List<List<FacetCountDTO>> ranked) {
+        BookFacetsDTO dto = new BookFacetsDTO();
+        dto.setTotalBooks(total);
+        dto.setLanguages(ranked.get(LANGUAGE));
+        dto.setAuthors(ranked.get(AUTHOR));
+        dto.setSubjects(ranked.get(SUBJECT));
+        dto.setBookshelves(ranked.get(BOOKSHELF));
+        return dto;
+    }
+
+    // Value <-> code mapping with a running count per code. Codes are never reused, so a value
+    // whose count drops to zero keeps its slot and is simply skipped when ranking.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private long[] counts = new long[64];
+
+        int[] encode(List<String> facetValues) {
+            if (facetValues == null || facetValues.isEmpty()) return new int[0];
+            return facetValues.stream()
+                    .filter(Objects::nonNull)
+                    .mapToInt(value -> codes.computeIfAbsent(value, v -> {
+                        values.add(v);
+                        return values.size() - 1;
+                    }))
+                    .distinct()
+                    .toArray();
+        }
+
+        void add(int[] bookCodes, int delta) {
+            if (values.size() > counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(values.size(), counts.length * 2));
+            }
+            for (int code : bookCodes) {
+                counts[code] += delta;
+            }
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long[] counts() {
+            return counts;
+        }
+
+        // Bounded min-heap over the counters: O(n log k)
+        List<FacetCountDTO> top(long[] counts, int limit) {
+            PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingLong(code -> counts[code]));
+            for (int code = 0; code < values.size(); code++) {
+                if (counts[code] <= 0) continue;
+                top.offer(code);
+                if (top.size() > limit) top.poll();
+            }
+            LinkedList<FacetCountDTO> ranked = new LinkedList<>();
+            while (!top.isEmpty()) {
+                int code = top.poll();
+                ranked.addFirst(new FacetCountDTO(values.get(code), counts[code]));
+            }
+            return new ArrayList<>(ranked);
+        }
+
+        // The same over counts kept only for the codes met
+        List<FacetCountDTO> top(Map<Integer, Long> counts, int limit) {
+            PriorityQueue<Map.Entry<Integer, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Long> count : counts.entrySet()) {
+                top.offer(count);
+                if (top.size() > limit) top.poll();
+            }
+            LinkedList<FacetCountDTO> ranked = new LinkedList<>();
+            while (!top.isEmpty()) {
+                Map.Entry<Integer, Long> count = top.poll();
+                ranked.addFirst(new FacetCountDTO(values.get(count.getKey()), count.getValue()));
+            }
+            return new ArrayList<>(ranked);
+        }
+    }
+}
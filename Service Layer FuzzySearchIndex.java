@@ -0,0 +1,482 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.IndexStatsDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Typo-tolerant matching of title and author terms ("dostoevski", "shakspeare"). The distinct
+// terms of the catalog are indexed by their trigrams; a query term is compared, with a bounded
+// Damerau-Levenshtein distance, only against the terms sharing enough trigrams with it. Like
+// pg_trgm, a term sharing no trigram with the query term is never found. Books are kept as
+// ordinals with tombstones and bulk compaction, as in BookSearchIndex.
+@Component
+public class FuzzySearchIndex implements CatalogIndex {
+
+    // Query terms of up to 2 characters must match exactly, up to 5 may be 1 edit off, longer ones 2
+    private static final int EXACT_MAX_LENGTH = 2;
+    private static final int ONE_EDIT_MAX_LENGTH = 5;
+    // An adjacent transposition changes at most 4 trigrams, any other edit at most 3
+    private static final int TRIGRAMS_PER_EDIT = 4;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final char PADDING = '$';
+    private static final int CHARACTER_BUCKETS = 128;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    // Rough cost of one postings binary search relative to setting one bit
+    private static final int BINARY_SEARCH_COST = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Term ids are dense; a term whose books are all gone stays until the next rebuild and matches nothing
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    // Per term id, so most candidates are rejected without dereferencing the term string
+    private int[] termLengths = new int[1024];
+    private long[] termSignatures = new long[1024];
+    private final List<IntList> ordinalsByTerm = new ArrayList<>();
+    private final Map<String, IntList> termsByTrigram = new HashMap<>();
+    private final Map<Long, Integer> ordinalByBookId = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private int[] downloads = new int[1024];
+    private final BitSet tombstones = new BitSet();
+    private int ordinals;
+    private int tombstoneCount;
+    private volatile boolean ready;
+
+    private record TermMatch(int termId, int distance) {
+    }
+
+    // Books containing one of a query term's matches (ascending distance), answering the smallest
+    // distance among them. Bit sets filled from the postings answer in constant time; when only a
+    // few books are probed, binary searches in the postings are cheaper than filling them.
+    private final class TermHits {
+        private final List<TermMatch> matches;
+        private final BitSet any;
+        private final BitSet[] byDistance;
+
+        TermHits(List<TermMatch> matches, boolean fill) {
+            this.matches = matches;
+            if (!fill) {
+                any = null;
+                byDistance = null;
+                return;
+            }
+            any = new BitSet();
+            byDistance = new BitSet[matches.get(matches.size() - 1).distance() + 1];
+            Arrays.setAll(byDistance, distance -> new BitSet());
+            for (TermMatch match : matches) {
+                IntList postings = ordinalsByTerm.get(match.termId());
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.values[i];
+                    if (any.get(ordinal)) continue;
+                    any.set(ordinal);
+                    byDistance[match.distance()].set(ordinal);
+                }
+            }
+        }
+
+        // -1 when the book has no match
+        int distance(int ordinal) {
+            if (any == null) {
+                for (TermMatch match : matches) {
+                    if (ordinalsByTerm.get(match.termId()).contains(ordinal)) return match.distance();
+                }
+                return -1;
+            }
+            if (!any.get(ordinal)) return -1;
+            for (int distance = 0; distance < byDistance.length; distance++) {
+                if (byDistance[distance].get(ordinal)) return distance;
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            termIds.clear();
+            terms.clear();
+            termLengths = new int[1024];
+            termSignatures = new long[1024];
+            ordinalsByTerm.clear();
+            termsByTrigram.clear();
+            ordinalByBookId.clear();
+            bookIds = new long[1024];
+            downloads = new int[1024];
+            tombstones.clear();
+            ordinals = 0;
+            tombstoneCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(BookDTO book) {
+        Set<String> bookTerms = new LinkedHashSet<>(BookSearchIndex.tokenize(book.getTitle()));
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> bookTerms.addAll(BookSearchIndex.tokenize(author)));
+        }
+
+        lock.writeLock().lock();
+        try {
+            tombstone(book.getId());
+            int ordinal = ordinals++;
+            if (ordinal == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, ordinal * 2);
+                downloads = Arrays.copyOf(downloads, ordinal * 2);
+            }
+            bookIds[ordinal] = book.getId();
+            downloads[ordinal] = book.getDownloadCount() != null ? book.getDownloadCount() : 0;
+            ordinalByBookId.put(book.getId(), ordinal);
+            for (String term : bookTerms) {
+                ordinalsByTerm.get(termId(term)).add(ordinal);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(bookId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Books containing a close match for every query term, ranked by the summed edit distance,
+    // then download count
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(BookSearchIndex.tokenize(query)));
+        if (queryTerms.isEmpty()) return Collections.emptyList();
+        if (queryTerms.size() > MAX_QUERY_TERMS) {
+            queryTerms = queryTerms.subList(0, MAX_QUERY_TERMS);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<TermMatch>> matches = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                List<TermMatch> termMatches = matchTerms(queryTerm);
+                if (termMatches.isEmpty()) return Collections.emptyList();
+                termMatches.sort(Comparator.comparingInt(TermMatch::distance));
+                matches.add(termMatches);
+            }
+            // Candidates are the books of the query term with the fewest books; the others are probed
+            matches.sort(Comparator.comparingLong(this::bookCount));
+            long candidateCount = bookCount(matches.get(0));
+            List<TermHits> probed = new ArrayList<>(matches.size() - 1);
+            for (List<TermMatch> termMatches : matches.subList(1, matches.size())) {
+                boolean fill = bookCount(termMatches) < candidateCount * termMatches.size() * BINARY_SEARCH_COST;
+                probed.add(new TermHits(termMatches, fill));
+            }
+
+            // Worst candidate at the head: larger distance, then fewer downloads
+            PriorityQueue<long[]> top = new PriorityQueue<>(Comparator
+                    .<long[]>comparingLong(entry -> -entry[1])
+                    .thenComparingLong(entry -> downloads[(int) entry[0]]));
+            BitSet seen = new BitSet();
+            for (TermMatch match : matches.get(0)) {
+                // Matches come in ascending distance; further ones cannot enter a full ranking
+                if (top.size() == limit && match.distance() > top.peek()[1]) break;
+                IntList postings = ordinalsByTerm.get(match.termId());
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.values[i];
+                    if (tombstones.get(ordinal) || seen.get(ordinal)) continue;
+                    seen.set(ordinal);
+                    int distance = match.distance();
+                    for (TermHits termHits : probed) {
+                        int termDistance = termHits.distance(ordinal);
+                        if (termDistance < 0) {
+                            distance = -1;
+                            break;
+                        }
+                        distance += termDistance;
+                    }
+                    if (distance < 0) continue;
+                    if (top.size() == limit) {
+                        long[] worst = top.peek();
+                        if (distance > worst[1] || (distance == worst[1] && downloads[ordinal] <= downloads[(int) worst[0]])) {
+                            continue;
+                        }
+                        top.poll();
+                    }
+                    top.offer(new long[] {ordinal, distance});
+                }
+            }
+            Long[] ranked = new Long[top.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = bookIds[(int) top.poll()[0]];
+            }
+            return Arrays.asList(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sizes and a rough estimate of the retained heap, assuming a 64-bit JVM with compressed oops
+    public IndexStatsDTO stats() {
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            long bytes = (long) bookIds.length * 8 + (long) downloads.length * 4 + tombstones.size() / 8
+                    + (long) termLengths.length * 4 + (long) termSignatures.length * 8
+                    + (long) ordinalByBookId.size() * (32 + 16 + 24);
+            for (int id = 0; id < terms.size(); id++) {
+                IntList termOrdinals = ordinalsByTerm.get(id);
+                postings += termOrdinals.size;
+                // String and its byte array, the term id map entry, the postings object and array
+                bytes += 24 + 16 + terms.get(id).length() + 32 + 16 + 24 + 16 + termOrdinals.values.length * 4L;
+            }
+            for (Map.Entry<String, IntList> trigram : termsByTrigram.entrySet()) {
+                bytes += 24 + 16 + trigram.getKey().length() + 32 + 24 + 16 + trigram.getValue().values.length * 4L;
+            }
+
+            IndexStatsDTO stats = new IndexStatsDTO();
+            stats.setName("fuzzy");
+            stats.setReady(ready);
+            stats.setBooks(ordinalByBookId.size());
+            stats.setTerms(terms.size());
+            stats.setTrigrams(termsByTrigram.size());
+            stats.setPostings(postings);
+            stats.setTombstones(tombstoneCount);
+            stats.setEstimatedBytes(bytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Terms within the allowed edit distance of the query term. The distance is only computed for
+    // terms sharing enough trigrams with it and of a close enough length.
+    private List<TermMatch> matchTerms(String queryTerm) {
+        int maxEdits = maxEdits(queryTerm.length());
+        if (maxEdits == 0) {
+            Integer id = termIds.get(queryTerm);
+            return id != null ? List.of(new TermMatch(id, 0)) : List.of();
+        }
+
+        List<String> queryTrigrams = trigrams(queryTerm);
+        int required = Math.min(Byte.MAX_VALUE, Math.max(1, queryTrigrams.size() - TRIGRAMS_PER_EDIT * maxEdits));
+        // Shared trigram count per term; a counter is touched once per trigram list entry
+        byte[] shared = new byte[terms.size()];
+        IntList candidates = new IntList();
+        for (String trigram : queryTrigrams) {
+            IntList list = termsByTrigram.get(trigram);
+            if (list == null) continue;
+            for (int i = 0; i < list.size; i++) {
+                int termId = list.values[i];
+                if (shared[termId] < required && ++shared[termId] == required) candidates.add(termId);
+            }
+        }
+
+        List<TermMatch> matches = new ArrayList<>();
+        long signature = signature(queryTerm);
+        int[] characterCounts = characterCounts(queryTerm);
+        int[][] rows = new int[3][queryTerm.length() + maxEdits + 1];
+        for (int i = 0; i < candidates.size; i++) {
+            int termId = candidates.values[i];
+            if (Math.abs(termLengths[termId] - queryTerm.length()) > maxEdits) continue;
+            // Every character present in only one of the terms costs at least one edit
+            if (Long.bitCount(signature & ~termSignatures[termId]) > maxEdits
+                    || Long.bitCount(termSignatures[termId] & ~signature) > maxEdits) continue;
+            String term = terms.get(termId);
+            if (bagDistance(queryTerm, characterCounts, term) > maxEdits) continue;
+            int distance = distance(queryTerm, term, maxEdits, rows);
+            if (distance <= maxEdits) {
+                matches.add(new TermMatch(termId, distance));
+            }
+        }
+        return matches;
+    }
+
+    private long bookCount(List<TermMatch> matches) {
+        long count = 0;
+        for (TermMatch match : matches) {
+            count += ordinalsByTerm.get(match.termId()).size;
+        }
+        return count;
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) return existing;
+
+        int id = terms.size();
+        termIds.put(term, id);
+        terms.add(term);
+        if (id == termLengths.length) {
+            termLengths = Arrays.copyOf(termLengths, id * 2);
+            termSignatures = Arrays.copyOf(termSignatures, id * 2);
+        }
+        termLengths[id] = term.length();
+        termSignatures[id] = signature(term);
+        ordinalsByTerm.add(new IntList());
+        for (String trigram : trigrams(term)) {
+            termsByTrigram.computeIfAbsent(trigram, t -> new IntList()).add(id);
+        }
+        return id;
+    }
+
+    static int maxEdits(int length) {
+        if (length <= EXACT_MAX_LENGTH) return 0;
+        return length <= ONE_EDIT_MAX_LENGTH ? 1 : 2;
+    }
+
+    // Distinct trigrams of the term padded with one boundary character on each side
+    static List<String> trigrams(String term) {
+        String padded = PADDING + term + PADDING;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(trigrams);
+    }
+
+    // One bit per character, folded onto 64 bits; a shared bit can only hide a difference
+    private static long signature(String term) {
+        long signature = 0;
+        for (int i = 0; i < term.length(); i++) {
+            signature |= 1L << (term.charAt(i) & 63);
+        }
+        return signature;
+    }
+
+    // Characters folded into CHARACTER_BUCKETS buckets, so bagDistance stays a lower bound for any text
+    private static int[] characterCounts(String term) {
+        int[] counts = new int[CHARACTER_BUCKETS];
+        for (int i = 0; i < term.length(); i++) {
+            counts[term.charAt(i) % CHARACTER_BUCKETS]++;
+        }
+        return counts;
+    }
+
+    // Lower bound of the edit distance from the characters the two terms do not have in common;
+    // far cheaper than the distance itself and rejects most trigram candidates. counts is
+    // characterCounts(query) and is left unchanged.
+    private static int bagDistance(String query, int[] counts, String term) {
+        int unmatched = 0;
+        for (int i = 0; i < term.length(); i++) {
+            if (--counts[term.charAt(i) % CHARACTER_BUCKETS] < 0) unmatched++;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            counts[term.charAt(i) % CHARACTER_BUCKETS]++;
+        }
+        int missing = query.length() - (term.length() - unmatched);
+        return Math.max(unmatched, missing);
+    }
+
+    // Optimal string alignment distance (adjacent transpositions count as one edit), computed only
+    // within max cells of the diagonal; gives up with max + 1 once every alignment needs more edits.
+    // rows holds three reusable rows of at least b.length() + 1 entries.
+    static int distance(String a, String b, int max, int[][] rows) {
+        int unreachable = max + 1;
+        int[] previousPrevious = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = Math.min(j, unreachable);
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = Math.min(i, unreachable);
+            if (from > 1) current[from - 1] = unreachable;
+            int rowMinimum = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = previous[j - 1] + cost;
+                if (j < i + max) value = Math.min(value, previous[j] + 1);
+                if (j > from || from == 1) value = Math.min(value, current[j - 1] + 1);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(value, unreachable);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (to < b.length()) current[to + 1] = unreachable;
+            if (rowMinimum > max) return unreachable;
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private void tombstone(Long bookId) {
+        Integer previous = ordinalByBookId.remove(bookId);
+        if (previous != null && !tombstones.get(previous)) {
+            tombstones.set(previous);
+            tombstoneCount++;
+        }
+    }
+
+    // Renumbers the live ordinals once tombstones make up a quarter of the index
+    private void compactIfNeeded() {
+        if (tombstoneCount < MIN_COMPACTION_TOMBSTONES || tombstoneCount * 4 < ordinals) return;
+
+        int[] remap = new int[ordinals];
+        int live = 0;
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            if (tombstones.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                bookIds[live] = bookIds[ordinal];
+                downloads[live] = downloads[ordinal];
+                live++;
+            }
+        }
+        ordinalsByTerm.forEach(postings -> postings.remap(remap));
+        ordinalByBookId.replaceAll((bookId, ordinal) -> remap[ordinal]);
+        ordinals = live;
+        tombstones.clear();
+        tombstoneCount = 0;
+    }
+
+    // Growable int array: ascending term ids per trigram and book ordinals per term
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void remap(int[] remap) {
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                int value = remap[values[i]];
+                if (value >= 0) values[live++] = value;
+            }
+            size = live;
+        }
+    }
+}
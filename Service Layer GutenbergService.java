@@ -1,101 +1,191 @@
 package com.bookcatalog.service;
 
+import com.bookcatalog.dto.CacheStatsDTO;
+import com.bookcatalog.dto.GutendexBook;
+import com.bookcatalog.dto.GutendexPage;
 import com.bookcatalog.model.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
-public class GutenbergService {
+public class GutenbergService implements MeterBinder {
     
-    private static final String GUTENDEX_BASE_URL = "https://gutendex.com/books";
-    private final RestTemplate restTemplate;
+    private static final Logger log = LoggerFactory.getLogger(GutenbergService.class);
     
-    public GutenbergService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    private final GutendexClient gutendexClient;
+    private final String baseUrl;
+    private final ExecutorService fetchExecutor;
+    // Caches hold the immutable gutendex records; every caller maps its own Book entities
+    private final CoalescingCache<String, List<GutendexBook>> searchCache;
+    private final CoalescingCache<Integer, Optional<GutendexBook>> bookCache;
+    
+    public GutenbergService(GutendexClient gutendexClient,
+                            @Qualifier("gutenbergFetchExecutor") ExecutorService fetchExecutor,
+                            @Value("${gutenberg.api.base-url:https://gutendex.com/books}") String baseUrl,
+                            @Value("${gutenberg.cache.search.max-size:1000}") long searchCacheSize,
+                            @Value("${gutenberg.cache.search.ttl:10m}") Duration searchCacheTtl,
+                            @Value("${gutenberg.cache.book.max-size:10000}") long bookCacheSize,
+                            @Value("${gutenberg.cache.book.ttl:1h}") Duration bookCacheTtl) {
+        this.gutendexClient = gutendexClient;
+        this.fetchExecutor = fetchExecutor;
+        this.baseUrl = baseUrl;
+        this.searchCache = new CoalescingCache<>("gutenberg-search", searchCacheSize, searchCacheTtl);
+        this.bookCache = new CoalescingCache<>("gutenberg-book", bookCacheSize, bookCacheTtl);
     }
     
-    // Using streams and lambdas to process API responses
+    // Using streams and lambdas to process API responses.
+    // Throws GutendexUnavailableException when gutendex cannot be reached.
     public List<Book> searchBooksFromGutenberg(String query, String author, String title, String subject) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(GUTENDEX_BASE_URL);
+        Map<String, String> params = searchParams(query, author, title, subject);
         
-        Map<String, String> params = new HashMap<>();
-        if (query != null && !query.trim().isEmpty()) params.put("search", query);
-        if (author != null && !author.trim().isEmpty()) params.put("author", author);
-        if (title != null && !title.trim().isEmpty()) params.put("title", title);
-        if (subject != null && !subject.trim().isEmpty()) params.put("topic", subject);
+        // gutendex matches case-insensitively, so differently cased searches share an entry
+        String cacheKey = params.entrySet().stream()
+                .map(param -> param.getKey() + "=" + param.getValue().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining("&"));
         
-        params.forEach(builder::queryParam);
+        return searchCache.get(cacheKey, () -> fetchPage(searchUrl(params)).results()).stream()
+                .map(this::mapToBook)
+                .collect(Collectors.toList());
+    }
+    
+    // Follows gutendex "next" links, fetching the following page while the current one is
+    // handed to the consumer, so at most two pages are held at a time. Returns the number emitted.
+    public int streamSearchFromGutenberg(String query, String author, String title, String subject,
+                                         int maxResults, Consumer<Book> consumer) {
+        int emitted = 0;
+        CompletableFuture<GutendexPage> nextPage =
+                CompletableFuture.completedFuture(fetchPage(searchUrl(searchParams(query, author, title, subject))));
         
         try {
-            Map<String, Object> response = restTemplate.getForObject(builder.toUriString(), Map.class);
-            
-            if (response != null && response.containsKey("results")) {
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+            while (nextPage != null && emitted < maxResults) {
+                GutendexPage page = nextPage.join();
+                String next = page.next();
+                
+                nextPage = next != null && emitted + page.results().size() < maxResults
+                        ? CompletableFuture.supplyAsync(() -> fetchPage(next), fetchExecutor)
+                        : null;
                 
-                return results.stream()
-                        .map(this::mapToBook)
-                        .collect(Collectors.toList());
+                for (GutendexBook result : page.results()) {
+                    if (emitted >= maxResults) break;
+                    consumer.accept(mapToBook(result));
+                    emitted++;
+                }
+            }
+        } finally {
+            // Also when the consumer throws (client gone): a prefetch that has not started is skipped,
+            // a running one is left to finish and its page dropped
+            if (nextPage != null) {
+                nextPage.cancel(true);
             }
-        } catch (Exception e) {
-            // Log the error and return empty list
-            System.err.println("Error fetching from Gutenberg API: " + e.getMessage());
         }
-        
-        return Collections.emptyList();
+        return emitted;
     }
     
+    // Empty when gutendex does not know the ID; throws GutendexUnavailableException when it cannot answer
     public Optional<Book> getBookFromGutenberg(Integer gutenbergId) {
-        String url = GUTENDEX_BASE_URL + "/" + gutenbergId;
-        
-        try {
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            return Optional.ofNullable(mapToBook(response));
-        } catch (Exception e) {
-            System.err.println("Error fetching book from Gutenberg API: " + e.getMessage());
-            return Optional.empty();
+        return bookCache.get(gutenbergId, () -> fetchBook(gutenbergId))
+                .map(this::mapToBook);
+    }
+    
+    // Uncached multi-ID lookup through the gutendex "ids" filter; IDs gutendex does not know are
+    // absent from the result. Up to 32 IDs (one gutendex page) cost a single request.
+    public List<GutendexBook> getBooksFromGutenberg(Collection<Integer> gutenbergIds) {
+        String ids = gutenbergIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<GutendexBook> books = new ArrayList<>();
+        String url = searchUrl(Map.of("ids", ids));
+        while (url != null) {
+            GutendexPage page = fetchPage(url);
+            books.addAll(page.results());
+            url = page.next();
         }
+        return books;
     }
     
-    @SuppressWarnings("unchecked")
-    private Book mapToBook(Map<String, Object> bookData) {
-        if (bookData == null) return null;
-        
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        searchCache.bindTo(registry);
+        bookCache.bindTo(registry);
+    }
+    
+    public List<CacheStatsDTO> getCacheStats() {
+        return List.of(searchCache.stats(), bookCache.stats());
+    }
+    
+    // Field rules shared by every source of Gutenberg metadata
+    public Book mapToBook(GutendexBook source) {
         Book book = new Book();
-        book.setGutenbergId((Integer) bookData.get("id"));
-        book.setTitle((String) bookData.get("title"));
+        book.setGutenbergId(source.id());
+        book.setTitle(source.title());
         
         // Process authors using streams
-        List<Map<String, Object>> authors = (List<Map<String, Object>>) bookData.get("authors");
-        if (authors != null) {
-            List<String> authorNames = authors.stream()
-                    .map(author -> (String) author.get("name"))
-                    .collect(Collectors.toList());
-            book.setAuthors(authorNames);
+        if (source.authors() != null) {
+            book.setAuthors(source.authors().stream()
+                    .map(GutendexBook.Person::name)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
         }
         
-        // Process subjects
-        List<String> subjects = (List<String>) bookData.get("subjects");
-        book.setSubjects(subjects);
-        
-        // Process bookshelves
-        List<String> bookshelves = (List<String>) bookData.get("bookshelves");
-        book.setBookshelves(bookshelves);
-        
-        book.setLanguage((String) bookData.get("languages") != null ? 
-            ((List<String>) bookData.get("languages")).get(0) : null);
-        book.setDownloadCount((Integer) bookData.get("download_count"));
+        book.setSubjects(copyOf(source.subjects()));
+        book.setBookshelves(copyOf(source.bookshelves()));
+        book.setLanguage(source.languages() != null && !source.languages().isEmpty()
+                ? source.languages().get(0) : null);
+        book.setDownloadCount(source.downloadCount());
+        book.setMediaType(source.mediaType());
         
         // Get cover image URL
-        Map<String, String> formats = (Map<String, String>) bookData.get("formats");
-        if (formats != null) {
-            book.setCoverUrl(formats.get("image/jpeg"));
+        if (source.formats() != null) {
+            book.setCoverUrl(source.formats().imageJpeg());
         }
         
         return book;
     }
+    
+    private static Map<String, String> searchParams(String query, String author, String title, String subject) {
+        Map<String, String> params = new TreeMap<>();
+        if (query != null && !query.trim().isEmpty()) params.put("search", query.trim());
+        if (author != null && !author.trim().isEmpty()) params.put("author", author.trim());
+        if (title != null && !title.trim().isEmpty()) params.put("title", title.trim());
+        if (subject != null && !subject.trim().isEmpty()) params.put("topic", subject.trim());
+        return params;
+    }
+    
+    private String searchUrl(Map<String, String> params) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(baseUrl);
+        params.forEach(builder::queryParam);
+        return builder.toUriString();
+    }
+    
+    private GutendexPage fetchPage(String url) {
+        GutendexPage page = gutendexClient.get(url, GutendexPage.class);
+        return page != null && page.results() != null ? page : new GutendexPage(0, null, List.of());
+    }
+    
+    // Unknown IDs are cached as empty results; any other failure propagates and is not cached
+    private Optional<GutendexBook> fetchBook(Integer gutenbergId) {
+        try {
+            return Optional.ofNullable(gutendexClient.get(baseUrl + "/" + gutenbergId, GutendexBook.class));
+        } catch (HttpClientErrorException.NotFound e) {
+            log.debug("Gutenberg book {} not found", gutenbergId);
+            return Optional.empty();
+        }
+    }
+    
+    // Entities get their own mutable lists; the cached records keep theirs
+    private static List<String> copyOf(List<String> values) {
+        return values != null ? new ArrayList<>(values) : null;
+    }
 }
@@ -0,0 +1,176 @@
+package com.bookcatalog.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// All gutendex traffic goes through here: bounded retries with jittered exponential backoff inside
+// an overall per-call deadline, behind a circuit breaker that fails fast while gutendex is down.
+// A 404 is an answer, not a failure, and is passed through unchanged.
+// Every attempt is timed as gutendex.requests (tagged with status and outcome) and every call,
+// retries included, as gutendex.calls.
+@Component
+public class GutendexClient {
+
+    private static final Logger log = LoggerFactory.getLogger(GutendexClient.class);
+
+    private final RestTemplate restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long callDeadlineNanos;
+    // Longest a single attempt can take: connecting plus waiting for the response
+    private final long attemptNanos;
+    private final MeterRegistry meterRegistry;
+    private final Counter retries;
+    private final Counter circuitRejections;
+
+    public GutendexClient(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                          @Value("${gutenberg.http.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${gutenberg.http.retry.initial-backoff:200ms}") Duration initialBackoff,
+                          @Value("${gutenberg.http.retry.max-backoff:2s}") Duration maxBackoff,
+                          @Value("${gutenberg.http.call-deadline:12s}") Duration callDeadline,
+                          @Value("${gutenberg.http.connect-timeout:2s}") Duration connectTimeout,
+                          @Value("${gutenberg.http.read-timeout:5s}") Duration readTimeout,
+                          @Value("${gutenberg.http.circuit.failure-threshold:5}") int failureThreshold,
+                          @Value("${gutenberg.http.circuit.open-duration:30s}") Duration openDuration) {
+        this.restTemplate = restTemplate;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.callDeadlineNanos = callDeadline.toNanos();
+        this.attemptNanos = connectTimeout.plus(readTimeout).toNanos();
+        this.meterRegistry = meterRegistry;
+        this.retries = Counter.builder("gutendex.retries")
+                .description("gutendex attempts repeated after a failure")
+                .register(meterRegistry);
+        this.circuitRejections = Counter.builder("gutendex.circuit.rejections")
+                .description("gutendex calls refused by the open circuit breaker")
+                .register(meterRegistry);
+        Gauge.builder("gutendex.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T get(String url, Class<T> responseType) {
+        Timer.Sample call = Timer.start(meterRegistry);
+        String outcome = "FAILURE";
+        try {
+            T response = getWithRetries(url, responseType);
+            outcome = "SUCCESS";
+            return response;
+        } catch (HttpClientErrorException.NotFound e) {
+            outcome = "NOT_FOUND";
+            throw e;
+        } finally {
+            call.stop(meterRegistry.timer("gutendex.calls", "outcome", outcome));
+        }
+    }
+
+    private <T> T getWithRetries(String url, Class<T> responseType) {
+        long deadline = System.nanoTime() + callDeadlineNanos;
+        RestClientException lastFailure = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                circuitRejections.increment();
+                throw new GutendexUnavailableException("gutendex circuit breaker is open",
+                        circuitBreaker.getRemainingOpenTime(), lastFailure);
+            }
+            Timer.Sample request = Timer.start(meterRegistry);
+            boolean answered = false;
+            try {
+                T response = restTemplate.getForObject(url, responseType);
+                request.stop(requestTimer("2xx", "SUCCESS"));
+                answered = true;
+                return response;
+            } catch (HttpClientErrorException.NotFound e) {
+                request.stop(requestTimer("404", "CLIENT_ERROR"));
+                answered = true;
+                throw e;
+            } catch (HttpClientErrorException e) {
+                request.stop(requestTimer(String.valueOf(e.getStatusCode().value()), "CLIENT_ERROR"));
+                // Other 4xx responses will not change on retry; only 429 counts against the breaker
+                if (e.getStatusCode().value() != 429) {
+                    answered = true;
+                    throw new GutendexUnavailableException("gutendex rejected " + url + ": " + e.getStatusCode(),
+                            null, e);
+                }
+                lastFailure = e;
+            } catch (HttpServerErrorException e) {
+                request.stop(requestTimer(String.valueOf(e.getStatusCode().value()), "SERVER_ERROR"));
+                lastFailure = e;
+            } catch (ResourceAccessException e) {
+                request.stop(requestTimer("IO_ERROR", "IO_ERROR"));
+                lastFailure = e;
+            } catch (RestClientException e) {
+                // A response that could not be read, e.g. an unexpected content type
+                request.stop(requestTimer("UNKNOWN", "INVALID_RESPONSE"));
+                lastFailure = e;
+            } finally {
+                // Every admitted attempt reports back, also on unexpected exceptions: a half-open
+                // breaker otherwise keeps waiting for its probe and rejects every later call
+                if (answered) {
+                    circuitBreaker.onSuccess();
+                } else {
+                    circuitBreaker.onFailure();
+                }
+            }
+
+            // Another attempt only if it can time out before the deadline
+            long backoff = backoffMillis(attempt);
+            if (attempt == maxAttempts
+                    || System.nanoTime() + backoff * 1_000_000 + attemptNanos > deadline) break;
+            log.debug("gutendex call to {} failed (attempt {}), retrying in {} ms: {}",
+                    url, attempt, backoff, lastFailure.getMessage());
+            retries.increment();
+            sleep(backoff);
+        }
+
+        log.warn("gutendex call to {} failed: {}", url, lastFailure.getMessage());
+        throw new GutendexUnavailableException("gutendex is unavailable", circuitBreaker.getRemainingOpenTime(),
+                lastFailure);
+    }
+
+    // Tags stay low-cardinality: the URL is deliberately not one of them
+    private Timer requestTimer(String status, String outcome) {
+        return Timer.builder("gutendex.requests")
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    // "Full jitter": uniformly random up to the capped exponential delay
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GutendexUnavailableException("Interrupted while retrying gutendex", null, e);
+        }
+    }
+}
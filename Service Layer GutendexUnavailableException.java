@@ -0,0 +1,18 @@
+package com.bookcatalog.service;
+
+import java.time.Duration;
+
+// gutendex could not be reached within the retry budget, or the circuit breaker is open
+public class GutendexUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GutendexUnavailableException(String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
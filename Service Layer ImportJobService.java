@@ -0,0 +1,262 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.GutendexBook;
+import com.bookcatalog.dto.ImportJobDTO;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.model.ImportJob;
+import com.bookcatalog.repository.BookRepository;
+import com.bookcatalog.repository.ImportJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Single-book imports. A request only records a job; workers fetch queued jobs from gutendex outside
+// any transaction, up to batch-size per request, and write the fetched books in one short transaction.
+// The import_jobs table is the durable state and the in-memory queue only holds job ids, so the queue
+// is rebuilt from the table on startup and jobs left RUNNING by a stopped instance start over.
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    // One gutendex "ids" request returns up to 32 books
+    private static final int MAX_BATCH_SIZE = 32;
+
+    private final ImportJobRepository importJobRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final GutenbergService gutenbergService;
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Map<ImportJob.Status, Counter> finished = new EnumMap<>(ImportJob.Status.class);
+    private final ExecutorService workerPool;
+    private final int workers;
+    private final int batchSize;
+
+    public ImportJobService(ImportJobRepository importJobRepository, BookRepository bookRepository,
+                            BookService bookService, GutenbergService gutenbergService,
+                            MeterRegistry meterRegistry,
+                            @Value("${gutenberg.import-jobs.workers:2}") int workers,
+                            @Value("${gutenberg.import-jobs.batch-size:32}") int batchSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("gutenberg.import-jobs.workers must be at least 1");
+        }
+        this.importJobRepository = importJobRepository;
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.gutenbergService = gutenbergService;
+        this.workers = workers;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        AtomicInteger threads = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "import-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("import.jobs.queued", queue, BlockingQueue::size)
+                .description("Import jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("import.jobs.running", running, AtomicInteger::get)
+                .register(meterRegistry);
+        for (ImportJob.Status status : ImportJob.Status.values()) {
+            if (status.isFinished()) {
+                finished.put(status, Counter.builder("import.jobs.finished")
+                        .tag("status", status.name())
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    // Idempotent per Gutenberg ID: an existing job is returned as it is, unless it ended without a
+    // book (NOT_FOUND, FAILED) or its book has been deleted since, in which case it is queued once more
+    public ImportJobDTO submit(Integer gutenbergId) {
+        if (gutenbergId == null || gutenbergId <= 0) {
+            throw new IllegalArgumentException("Gutenberg ID must be positive");
+        }
+        Optional<ImportJob> existing = importJobRepository.findByGutenbergId(gutenbergId);
+        ImportJob job;
+        if (existing.isEmpty()) {
+            try {
+                job = importJobRepository.saveAndFlush(new ImportJob(gutenbergId));
+            } catch (DataIntegrityViolationException e) {
+                // Submitted concurrently; the other request queued it
+                return importJobRepository.findByGutenbergId(gutenbergId)
+                        .map(this::toDTO)
+                        .orElseThrow(() -> e);
+            }
+        } else if (requeue(existing.get())) {
+            job = importJobRepository.findById(existing.get().getId()).orElseThrow();
+        } else {
+            return toDTO(existing.get());
+        }
+        queue.add(job.getId());
+        return toDTO(job);
+    }
+
+    // Conditional UPDATEs like claim(): of concurrent submits (and a worker claiming the job) only one
+    // wins, so the job is queued once. A loser returns the job as it read it.
+    private boolean requeue(ImportJob job) {
+        if (job.getStatus().isRetryable()) {
+            return importJobRepository.requeueRetryable(job.getId()) == 1;
+        }
+        return job.getBookId() != null && !bookRepository.existsById(job.getBookId())
+                && importJobRepository.requeueWithDeletedBook(job.getId(), job.getBookId()) == 1;
+    }
+
+    public Optional<ImportJobDTO> getJob(Long id) {
+        return importJobRepository.findById(id).map(this::toDTO);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int restarted = importJobRepository.requeueRunning();
+        // Jobs submitted before this point may be queued twice; the second claim finds them taken
+        List<Long> queued = importJobRepository.findIdsByStatus(ImportJob.Status.QUEUED);
+        queue.addAll(queued);
+        if (!queued.isEmpty()) {
+            log.info("Resuming {} queued import jobs ({} interrupted)", queued.size(), restarted);
+        }
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+    }
+
+    private void work() {
+        List<Long> ids = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                ids.add(queue.take());
+                queue.drainTo(ids, batchSize - 1);
+                process(ids);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Claimed jobs are FAILED; only if that write failed too do they stay RUNNING until
+                // the next startup
+                log.error("Import jobs {} failed", ids, e);
+            } finally {
+                ids.clear();
+            }
+        }
+    }
+
+    private void process(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = ids.stream()
+                .distinct()
+                .filter(id -> importJobRepository.claim(id, now) == 1)
+                .collect(Collectors.toList());
+        if (claimed.isEmpty()) {
+            return;
+        }
+        running.addAndGet(claimed.size());
+        try {
+            List<ImportJob> jobs = importJobRepository.findAllById(claimed);
+            Map<Integer, ImportJob> pending = jobs.stream()
+                    .collect(Collectors.toMap(ImportJob::getGutenbergId, Function.identity()));
+            // Books that arrived some other way (bulk import, catalog load, a create) since submission
+            for (Book book : bookRepository.findByGutenbergIdIn(pending.keySet())) {
+                pending.remove(book.getGutenbergId()).finish(ImportJob.Status.ALREADY_IMPORTED, book.getId(), null);
+            }
+            if (!pending.isEmpty()) {
+                importFetched(pending);
+            }
+            importJobRepository.saveAll(jobs);
+            jobs.forEach(job -> finished.get(job.getStatus()).increment());
+        } catch (RuntimeException e) {
+            // RUNNING is not retryable, so the jobs are failed here rather than left to the next startup
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            try {
+                int failed = importJobRepository.failRunning(claimed,
+                        error.length() > 1000 ? error.substring(0, 1000) : error, LocalDateTime.now());
+                finished.get(ImportJob.Status.FAILED).increment(failed);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        } finally {
+            running.addAndGet(-claimed.size());
+        }
+    }
+
+    private void importFetched(Map<Integer, ImportJob> pending) {
+        List<GutendexBook> fetched;
+        try {
+            fetched = gutenbergService.getBooksFromGutenberg(pending.keySet());
+        } catch (RuntimeException e) {
+            log.warn("Fetching Gutenberg IDs {} failed: {}", pending.keySet(), e.getMessage());
+            pending.values().forEach(job -> job.finish(ImportJob.Status.FAILED, null, e.getMessage()));
+            return;
+        }
+        Map<Integer, GutendexBook> found = fetched.stream()
+                .filter(source -> pending.containsKey(source.id()))
+                .collect(Collectors.toMap(GutendexBook::id, Function.identity(), (first, second) -> first));
+        pending.forEach((gutenbergId, job) -> {
+            if (!found.containsKey(gutenbergId)) {
+                job.finish(ImportJob.Status.NOT_FOUND, null, "Not found on Project Gutenberg");
+            }
+        });
+        if (found.isEmpty()) {
+            return;
+        }
+
+        List<Book> books = found.values().stream().map(gutenbergService::mapToBook).collect(Collectors.toList());
+        try {
+            bookService.importBatch(books);
+            books.forEach(book -> pending.get(book.getGutenbergId())
+                    .finish(ImportJob.Status.COMPLETED, book.getId(), null));
+        } catch (RuntimeException e) {
+            // One book stored concurrently rolls back the whole batch; the others go in one by one,
+            // mapped afresh since the rolled-back entities keep their assigned ids
+            found.forEach((gutenbergId, source) -> importOne(source, pending.get(gutenbergId)));
+        }
+    }
+
+    private void importOne(GutendexBook source, ImportJob job) {
+        Book book = gutenbergService.mapToBook(source);
+        try {
+            bookService.importBatch(List.of(book));
+            job.finish(ImportJob.Status.COMPLETED, book.getId(), null);
+        } catch (DataIntegrityViolationException e) {
+            Optional<Book> existing = bookRepository.findByGutenbergId(job.getGutenbergId());
+            if (existing.isPresent()) {
+                job.finish(ImportJob.Status.ALREADY_IMPORTED, existing.get().getId(), null);
+            } else {
+                job.finish(ImportJob.Status.FAILED, null, e.getMostSpecificCause().getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Importing Gutenberg ID {} failed", job.getGutenbergId(), e);
+            job.finish(ImportJob.Status.FAILED, null, e.getMessage());
+        }
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setGutenbergId(job.getGutenbergId());
+        dto.setStatus(job.getStatus().name());
+        dto.setBookId(job.getBookId());
+        dto.setAttempts(job.getAttempts());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Books ordered by downloadCount (descending, ties by id) and re-positioned whenever a write
+// changes the count, so /popular reads the head of a sorted set instead of sorting the table
+@Component
+public class PopularBooksIndex implements CatalogIndex {
+
+    private record Entry(int downloads, long bookId) {
+    }
+
+    private static final Comparator<Entry> MOST_DOWNLOADED = Comparator
+            .comparingInt(Entry::downloads).reversed()
+            .thenComparingLong(Entry::bookId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(MOST_DOWNLOADED);
+    // Guarded by this; lets an update find the entry it replaces
+    private final Map<Long, Integer> downloadsByBook = new HashMap<>();
+    private volatile boolean ready;
+
+    @Override
+    public synchronized void clear() {
+        ready = false;
+        ranking.clear();
+        downloadsByBook.clear();
+    }
+
+    @Override
+    public synchronized void index(BookDTO book) {
+        int downloads = book.getDownloadCount() != null ? book.getDownloadCount() : 0;
+        Integer previous = downloadsByBook.put(book.getId(), downloads);
+        if (previous != null) {
+            if (previous == downloads) return;
+            ranking.remove(new Entry(previous, book.getId()));
+        }
+        ranking.add(new Entry(downloads, book.getId()));
+    }
+
+    @Override
+    public synchronized void remove(Long bookId) {
+        Integer previous = downloadsByBook.remove(bookId);
+        if (previous != null) {
+            ranking.remove(new Entry(previous, bookId));
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Lock-free read of the ranking head
+    public List<Long> mostDownloaded(int minDownloads, int limit) {
+        List<Long> bookIds = new ArrayList<>(limit);
+        for (Entry entry : ranking) {
+            if (entry.downloads() < minDownloads || bookIds.size() == limit) break;
+            bookIds.add(entry.bookId());
+        }
+        return bookIds;
+    }
+}
@@ -0,0 +1,554 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.SimilarIndexStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Precomputed "more like this" lists. A book is the set of its authors, subject headings (split on
+// " -- ") and bookshelves; two books are as similar as the Jaccard index of their sets. Candidates
+// come from MinHash signatures split into LSH bands, so a book is only compared with books sharing
+// a band, and the best neighbours of every book are kept, making a read a copy of a short array.
+// Writes mark the lists they may change as stale; a stale list is recomputed by the next read.
+@Component
+public class SimilarBooksIndex implements CatalogIndex {
+
+    // 16 bands of 2 rows: pairs with a Jaccard index of 0.25 share a band with probability 0.65,
+    // pairs at 0.5 with probability 0.99
+    static final int BANDS = 16;
+    static final int ROWS = 2;
+    // Members read per band bucket. A band whose rows are all very common features ("Fiction")
+    // holds a large share of the catalog; its members mostly score alike, and reading them all
+    // would make the build quadratic. Which members are read depends on the order they joined.
+    private static final int MAX_BUCKET_SCAN = 128;
+    private static final long EMPTY = 0L;
+
+    private final int maxNeighbours;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Feature ids are dense and never reused; a feature without books stays until the next rebuild
+    private final Map<String, Integer> featureIds = new HashMap<>();
+    // Hashed from the feature name, so signatures do not depend on the order books were indexed in
+    private long[] featureHashes = new long[1024];
+    private final Map<Long, Integer> ordinalByBookId = new HashMap<>();
+    // Ordinals of removed books, reused by the next added ones
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private long[] bookIds = new long[1024];
+    private int[] downloads = new int[1024];
+    // Per ordinal: sorted feature ids, then the neighbours (best first) and the score of the worst one
+    private int[][] features = new int[1024][];
+    private long[][] neighbours = new long[1024][];
+    private float[] worstScores = new float[1024];
+    private final BitSet stale = new BitSet();
+    private int ordinals;
+
+    // Band buckets, open addressing on the band key; bandKeys holds the BANDS keys of each book.
+    // Bucket members are chained through nextEntry, indexed like bandKeys by ordinal * BANDS + band.
+    // An emptied bucket keeps its slot until the next rebuild.
+    private long[] bandKeys = new long[1024 * BANDS];
+    private long[] bucketKeys = new long[1 << 12];
+    private int[] bucketHeads = new int[1 << 12];
+    private int[] nextEntry = new int[1024 * BANDS];
+    private int buckets;
+    private long bucketEntries;
+
+    private final Scratch writeScratch = new Scratch();
+    private volatile boolean ready;
+    private volatile long buildMillis;
+
+    public SimilarBooksIndex(@Value("${app.similar.max-results:20}") int maxNeighbours) {
+        this.maxNeighbours = Math.max(1, maxNeighbours);
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            featureIds.clear();
+            featureHashes = new long[1024];
+            ordinalByBookId.clear();
+            freeOrdinals.clear();
+            bookIds = new long[1024];
+            downloads = new int[1024];
+            features = new int[1024][];
+            neighbours = new long[1024][];
+            worstScores = new float[1024];
+            bandKeys = new long[1024 * BANDS];
+            stale.clear();
+            ordinals = 0;
+            clearBuckets(1 << 12);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Before markReady only the features are recorded; the buckets and lists are built in one pass
+    @Override
+    public void index(BookDTO book) {
+        lock.writeLock().lock();
+        try {
+            int[] bookFeatures = featuresOf(book);
+            Integer existing = ordinalByBookId.get(book.getId());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                downloads[ordinal] = book.getDownloadCount() != null ? book.getDownloadCount() : 0;
+                if (Arrays.equals(features[ordinal], bookFeatures)) return;
+                if (ready) {
+                    unlink(ordinal);
+                }
+            } else {
+                ordinal = allocate(book.getId());
+                downloads[ordinal] = book.getDownloadCount() != null ? book.getDownloadCount() : 0;
+            }
+            features[ordinal] = bookFeatures;
+            if (ready) {
+                link(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByBookId.remove(bookId);
+            if (ordinal == null) return;
+            if (ready) {
+                unlink(ordinal);
+            }
+            features[ordinal] = null;
+            neighbours[ordinal] = null;
+            stale.clear(ordinal);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Signatures and neighbour lists are computed on the common fork-join pool. CatalogIndexer buffers
+    // writes while this runs, so the write lock only holds off stats() and similar() (503 until ready).
+    @Override
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            int count = ordinals;
+            IntStream.range(0, count).parallel().forEach(ordinal -> {
+                if (features[ordinal] != null) computeBandKeys(ordinal);
+            });
+
+            clearBuckets(Integer.highestOneBit(Math.max(1 << 11, count * BANDS)) << 1);
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                if (features[ordinal] == null || features[ordinal].length == 0) continue;
+                for (int band = 0; band < BANDS; band++) {
+                    addEntry(bandKeys[ordinal * BANDS + band], ordinal * BANDS + band);
+                }
+            }
+
+            // A few chunks per worker, each with its own scratch space
+            int chunks = Math.max(1, Math.min(count / 256, ForkJoinPool.getCommonPoolParallelism() * 4));
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Scratch scratch = new Scratch();
+                for (int ordinal = chunk; ordinal < count; ordinal += chunks) {
+                    if (features[ordinal] != null) computeNeighbours(ordinal, scratch);
+                }
+            });
+            stale.clear();
+            buildMillis = (System.nanoTime() - start) / 1_000_000;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxNeighbours() {
+        return maxNeighbours;
+    }
+
+    // Ids of the books most similar to the given one, best first; empty when the book is unknown
+    public Optional<List<Long>> similar(Long bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalByBookId.get(bookId);
+            if (ordinal == null) return Optional.empty();
+            if (!stale.get(ordinal)) return Optional.of(copyNeighbours(ordinal, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByBookId.get(bookId);
+            if (ordinal == null) return Optional.empty();
+            if (stale.get(ordinal)) {
+                computeNeighbours(ordinal, writeScratch);
+                stale.clear(ordinal);
+            }
+            return Optional.of(copyNeighbours(ordinal, limit));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SimilarIndexStatsDTO stats() {
+        lock.readLock().lock();
+        try {
+            long links = 0;
+            long bytes = (long) bookIds.length * 8 + (long) downloads.length * 4 + (long) worstScores.length * 4
+                    + (long) features.length * 8 + (long) neighbours.length * 8 + (long) nextEntry.length * 4
+                    + (long) bandKeys.length * 8 + (long) featureHashes.length * 8
+                    + (long) bucketKeys.length * 12 + stale.size() / 8
+                    + (long) ordinalByBookId.size() * (32 + 16 + 16);
+            for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+                if (features[ordinal] != null) bytes += 16 + features[ordinal].length * 4L;
+                if (neighbours[ordinal] != null) {
+                    links += neighbours[ordinal].length;
+                    bytes += 16 + neighbours[ordinal].length * 8L;
+                }
+            }
+            for (String feature : featureIds.keySet()) {
+                // String and its byte array, the map entry and the boxed id
+                bytes += 24 + 16 + feature.length() + 32 + 16;
+            }
+
+            SimilarIndexStatsDTO stats = new SimilarIndexStatsDTO();
+            stats.setReady(ready);
+            stats.setBooks(ordinalByBookId.size());
+            stats.setFeatures(featureIds.size());
+            stats.setBuckets(buckets);
+            stats.setBucketEntries(bucketEntries);
+            stats.setNeighbours(links);
+            stats.setStaleBooks(stale.cardinality());
+            stats.setMaxNeighbours(maxNeighbours);
+            stats.setBuildMillis(buildMillis);
+            stats.setEstimatedBytes(bytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocate(Long bookId) {
+        int ordinal;
+        if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+        } else {
+            ordinal = ordinals++;
+            if (ordinal == bookIds.length) {
+                int capacity = bookIds.length * 2;
+                bookIds = Arrays.copyOf(bookIds, capacity);
+                downloads = Arrays.copyOf(downloads, capacity);
+                features = Arrays.copyOf(features, capacity);
+                neighbours = Arrays.copyOf(neighbours, capacity);
+                worstScores = Arrays.copyOf(worstScores, capacity);
+                bandKeys = Arrays.copyOf(bandKeys, capacity * BANDS);
+                nextEntry = Arrays.copyOf(nextEntry, capacity * BANDS);
+            }
+        }
+        bookIds[ordinal] = bookId;
+        ordinalByBookId.put(bookId, ordinal);
+        return ordinal;
+    }
+
+    // Takes the book out of its buckets; books that list it as a neighbour are marked stale
+    private void unlink(int ordinal) {
+        if (features[ordinal].length == 0) return;
+        long bookId = bookIds[ordinal];
+        for (int candidate : candidates(ordinal, writeScratch)) {
+            if (contains(neighbours[candidate], bookId)) stale.set(candidate);
+        }
+        for (int band = 0; band < BANDS; band++) {
+            removeEntry(bandKeys[ordinal * BANDS + band], ordinal * BANDS + band);
+        }
+    }
+
+    // Puts the book in its buckets; its own list and those it now ranks in are marked stale (a book
+    // only tying the worst neighbour of a full list is not added to it). A book without authors,
+    // subjects or bookshelves has no neighbours and is in no bucket.
+    private void link(int ordinal) {
+        if (features[ordinal].length == 0) {
+            neighbours[ordinal] = new long[0];
+            stale.clear(ordinal);
+            return;
+        }
+        computeBandKeys(ordinal);
+        for (int band = 0; band < BANDS; band++) {
+            addEntry(bandKeys[ordinal * BANDS + band], ordinal * BANDS + band);
+        }
+        neighbours[ordinal] = null;
+        stale.set(ordinal);
+        for (int candidate : candidates(ordinal, writeScratch)) {
+            long[] current = neighbours[candidate];
+            float score = jaccard(features[ordinal], features[candidate]);
+            if (score > 0 && (current == null || current.length < maxNeighbours || score > worstScores[candidate])) {
+                stale.set(candidate);
+            }
+        }
+    }
+
+    // Scores every candidate and keeps the best maxNeighbours: higher Jaccard index first, then more
+    // downloads, then lower id
+    private void computeNeighbours(int ordinal, Scratch scratch) {
+        int[] candidates = candidates(ordinal, scratch);
+        int[] best = new int[maxNeighbours];
+        float[] bestScores = new float[maxNeighbours];
+        int size = 0;
+        for (int candidate : candidates) {
+            float score = jaccard(features[ordinal], features[candidate]);
+            if (score <= 0) continue;
+            if (size == maxNeighbours && !ranksBefore(score, candidate, bestScores[size - 1], best[size - 1])) continue;
+            int position = size < maxNeighbours ? size++ : size - 1;
+            while (position > 0 && ranksBefore(score, candidate, bestScores[position - 1], best[position - 1])) {
+                best[position] = best[position - 1];
+                bestScores[position] = bestScores[position - 1];
+                position--;
+            }
+            best[position] = candidate;
+            bestScores[position] = score;
+        }
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = bookIds[best[i]];
+        }
+        neighbours[ordinal] = ids;
+        worstScores[ordinal] = size > 0 ? bestScores[size - 1] : 0;
+    }
+
+    private boolean ranksBefore(float score, int ordinal, float otherScore, int other) {
+        if (score != otherScore) return score > otherScore;
+        if (downloads[ordinal] != downloads[other]) return downloads[ordinal] > downloads[other];
+        return bookIds[ordinal] < bookIds[other];
+    }
+
+    // Distinct books sharing at least one band bucket with the given one
+    private int[] candidates(int ordinal, Scratch scratch) {
+        scratch.reset(ordinals);
+        scratch.mark(ordinal);
+        for (int band = 0; band < BANDS; band++) {
+            int slot = findSlot(bandKeys[ordinal * BANDS + band]);
+            if (bucketKeys[slot] == EMPTY) continue;
+            int scanned = 0;
+            for (int entry = bucketHeads[slot]; entry >= 0 && scanned++ < MAX_BUCKET_SCAN; entry = nextEntry[entry]) {
+                scratch.mark(entry / BANDS);
+            }
+        }
+        return scratch.marked();
+    }
+
+    private List<Long> copyNeighbours(int ordinal, int limit) {
+        long[] ids = neighbours[ordinal];
+        if (ids == null) return List.of();
+        List<Long> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && result.size() < limit; i++) {
+            // A neighbour removed after the list was computed is left out until the list is refreshed
+            if (ordinalByBookId.containsKey(ids[i])) result.add(ids[i]);
+        }
+        return result;
+    }
+
+    private int[] featuresOf(BookDTO book) {
+        Set<String> names = new HashSet<>();
+        if (book.getAuthors() != null) {
+            book.getAuthors().forEach(author -> addFeature(names, "a:", author));
+        }
+        if (book.getSubjects() != null) {
+            for (String subject : book.getSubjects()) {
+                if (subject == null) continue;
+                for (String heading : subject.split(" -- ")) {
+                    addFeature(names, "s:", heading);
+                }
+            }
+        }
+        if (book.getBookshelves() != null) {
+            book.getBookshelves().forEach(bookshelf -> addFeature(names, "b:", bookshelf));
+        }
+        int[] ids = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            Integer id = featureIds.get(name);
+            if (id == null) {
+                id = featureIds.size();
+                featureIds.put(name, id);
+                if (id == featureHashes.length) featureHashes = Arrays.copyOf(featureHashes, id * 2);
+                featureHashes[id] = hash(name);
+            }
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static void addFeature(Set<String> names, String prefix, String value) {
+        if (value == null || value.isBlank()) return;
+        names.add(prefix + value.trim().toLowerCase(Locale.ROOT));
+    }
+
+    // MinHash over the feature ids, ROWS hashes per band, folded into one key per band
+    private void computeBandKeys(int ordinal) {
+        int[] bookFeatures = features[ordinal];
+        for (int band = 0; band < BANDS; band++) {
+            long key = mix(band + 1L);
+            for (int row = 0; row < ROWS; row++) {
+                long seed = mix(band * ROWS + row + 1L);
+                long min = Long.MAX_VALUE;
+                for (int feature : bookFeatures) {
+                    min = Math.min(min, mix(seed ^ featureHashes[feature]));
+                }
+                key = mix(key ^ min);
+            }
+            bandKeys[ordinal * BANDS + band] = key == EMPTY ? 1 : key;
+        }
+    }
+
+    // Sorted-merge intersection of two feature sets
+    private static float jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) return 0;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (float) shared / (a.length + b.length - shared);
+    }
+
+    private static boolean contains(long[] ids, long bookId) {
+        if (ids == null) return false;
+        for (long id : ids) {
+            if (id == bookId) return true;
+        }
+        return false;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private void clearBuckets(int capacity) {
+        bucketKeys = new long[capacity];
+        bucketHeads = new int[capacity];
+        buckets = 0;
+        bucketEntries = 0;
+    }
+
+    private int findSlot(long key) {
+        int mask = bucketKeys.length - 1;
+        int slot = (int) key & mask;
+        while (bucketKeys[slot] != EMPTY && bucketKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void addEntry(long key, int entry) {
+        int slot = findSlot(key);
+        if (bucketKeys[slot] == EMPTY) {
+            if ((buckets + 1) * 2 > bucketKeys.length) {
+                growBuckets();
+                slot = findSlot(key);
+            }
+            bucketKeys[slot] = key;
+            bucketHeads[slot] = -1;
+            buckets++;
+        }
+        nextEntry[entry] = bucketHeads[slot];
+        bucketHeads[slot] = entry;
+        bucketEntries++;
+    }
+
+    private void removeEntry(long key, int entry) {
+        int slot = findSlot(key);
+        if (bucketKeys[slot] == EMPTY) return;
+        if (bucketHeads[slot] == entry) {
+            bucketHeads[slot] = nextEntry[entry];
+            bucketEntries--;
+            return;
+        }
+        for (int previous = bucketHeads[slot]; previous >= 0; previous = nextEntry[previous]) {
+            if (nextEntry[previous] == entry) {
+                nextEntry[previous] = nextEntry[entry];
+                bucketEntries--;
+                return;
+            }
+        }
+    }
+
+    private void growBuckets() {
+        long[] oldKeys = bucketKeys;
+        int[] oldHeads = bucketHeads;
+        bucketKeys = new long[oldKeys.length * 2];
+        bucketHeads = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = findSlot(oldKeys[i]);
+            bucketKeys[slot] = oldKeys[i];
+            bucketHeads[slot] = oldHeads[i];
+        }
+    }
+
+    // Per-thread candidate set: ordinals are marked with a generation number instead of clearing
+    private static final class Scratch {
+        private int[] generations = new int[0];
+        private int generation;
+        private int[] marked = new int[64];
+        private int size;
+
+        void reset(int ordinals) {
+            if (generations.length < ordinals) {
+                generations = new int[Math.max(ordinals, generations.length * 2)];
+                generation = 0;
+            }
+            if (++generation == 0) {
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+            size = -1;
+        }
+
+        // The first ordinal marked is the query book itself and is not returned
+        void mark(int ordinal) {
+            if (generations[ordinal] == generation) return;
+            generations[ordinal] = generation;
+            if (size >= 0) {
+                if (size == marked.length) marked = Arrays.copyOf(marked, size * 2);
+                marked[size] = ordinal;
+            }
+            size++;
+        }
+
+        int[] marked() {
+            return Arrays.copyOf(marked, size);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.dto.BookDTO;
+import com.bookcatalog.dto.BookSort;
+import com.bookcatalog.model.Book;
+import com.bookcatalog.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The list, search, author and popular queries must issue the same number of statements for 10
+// books as for 200: authors, subjects and bookshelves are batch-fetched, never loaded per book
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "gutenberg.sync.cron=-",
+        "gutenberg.covers.warm-up=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookQueryStatementCountTest {
+
+    private static final int BOOKS = 200;
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private BookSearchIndex searchIndex;
+    @Autowired
+    private PopularBooksIndex popularBooksIndex;
+
+    private Statistics statistics;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    void seedCatalog() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book("River Journey " + i, List.of("Writer" + i, "Shared Author"), 10_000 + i);
+            book.setSubjects(List.of("Rivers -- Fiction", "Subject " + i));
+            book.setBookshelves(new ArrayList<>(List.of("Shelf " + (i % 5))));
+            book.setLanguage("en");
+            book.setDownloadCount(100_000 - i);
+            books.add(book);
+        }
+        bookService.importBatch(books);
+    }
+
+    @Test
+    void listingPagesIsIndependentOfPageSize() {
+        long small = statements(() -> bookService.getBooksPage(null, 10, BookSort.ID).getItems(), 10);
+        long large = statements(() -> bookService.getBooksPage(null, BOOKS, BookSort.ID).getItems(), BOOKS);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void repositorySearchIsIndependentOfMatchCount() {
+        // "river journey 5" matches 11 titles, "river journey 1" 111
+        long small = loadStatements(() -> bookRepository.searchBooks("river journey 5"), 11);
+        long large = loadStatements(() -> bookRepository.searchBooks("river journey 1"), 111);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void authorPrefixSearchIsIndependentOfMatchCount() {
+        long small = statements(() -> bookService.searchBooksByAuthor("writer5"), 11);
+        long large = statements(() -> bookService.searchBooksByAuthor("writer1"), 111);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void popularQueryIsIndependentOfLimit() {
+        long small = loadStatements(() -> bookRepository.findPopularBooks(0, PageRequest.of(0, 10)), 10);
+        long large = loadStatements(() -> bookRepository.findPopularBooks(0, PageRequest.of(0, BOOKS)), BOOKS);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void indexedReadPathsAreIndependentOfResultSize() throws InterruptedException {
+        // Served by the in-memory indexes once the startup build is done; the books seeded
+        // meanwhile are replayed into them
+        awaitIndexes();
+        long small = statements(() -> bookService.searchBooks("river", 10), 10);
+        long large = statements(() -> bookService.searchBooks("river", BOOKS), BOOKS);
+        assertThat(large).isEqualTo(small);
+
+        small = statements(() -> bookService.getPopularBooks(0, 10), 10);
+        large = statements(() -> bookService.getPopularBooks(0, BOOKS), BOOKS);
+        assertThat(large).isEqualTo(small);
+    }
+
+    // Statements prepared by a service call, which converts to DTOs inside its own transaction
+    private long statements(Supplier<List<BookDTO>> query, int expectedBooks) {
+        statistics.clear();
+        List<BookDTO> books = query.get();
+        long prepared = statistics.getPrepareStatementCount();
+        assertThat(books).hasSize(expectedBooks);
+        return prepared;
+    }
+
+    // Statements prepared by a repository query plus the DTO conversion touching every collection
+    private long loadStatements(Supplier<List<Book>> query, int expectedBooks) {
+        return readOnly.execute(status -> {
+            statistics.clear();
+            List<BookDTO> books = query.get().stream().map(bookService::convertToDTO).toList();
+            long prepared = statistics.getPrepareStatementCount();
+            assertThat(books).hasSize(expectedBooks);
+            return prepared;
+        });
+    }
+
+    private void awaitIndexes() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!searchIndex.isReady() || !popularBooksIndex.isReady()) {
+            assertThat(System.nanoTime()).as("catalog indexes ready").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.bookcatalog.controller;
+
+import com.bookcatalog.dto.BookRequest;
+import com.bookcatalog.service.BookService;
+import com.bookcatalog.service.CoverCacheService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// GET /api/books/{id}/cover against a local image server: the cover is downloaded once and then
+// served from disk with a long max-age and its content hash as ETag; redirects off the allow-list
+// and non-image answers are refused with 502
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:covers;DB_CLOSE_DELAY=-1",
+        "gutenberg.covers.allowed-hosts=localhost",
+        "gutenberg.covers.max-age=30d",
+        "app.rate-limit.enabled=false",
+        "gutenberg.sync.cron=-"})
+class CoverProxyTest {
+
+    // A JPEG/JFIF header is enough; the proxy only checks the Content-Type
+    private static final byte[] IMAGE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0};
+
+    private static final Path covers = createTempDirectory();
+    private static final Map<String, AtomicInteger> imageRequests = new ConcurrentHashMap<>();
+    private static final HttpServer images = startImageServer();
+
+    @DynamicPropertySource
+    static void coverProperties(DynamicPropertyRegistry registry) {
+        registry.add("gutenberg.covers.directory", covers::toString);
+    }
+
+    @AfterAll
+    static void stopImageServer() {
+        images.stop(0);
+    }
+
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private CoverCacheService coverCacheService;
+
+    @Test
+    void coverIsDownloadedOnceAndServedWithCachingHeaders() {
+        Long id = book(1, "/cover.jpg");
+
+        ResponseEntity<byte[]> first = rest.getForEntity("/api/books/{id}/cover", byte[].class, id);
+        ResponseEntity<byte[]> second = rest.getForEntity("/api/books/{id}/cover", byte[].class, id);
+
+        for (ResponseEntity<byte[]> response : List.of(first, second)) {
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo(IMAGE);
+            assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_JPEG);
+            assertThat(response.getHeaders().getCacheControl()).contains("max-age=2592000").contains("public");
+            assertThat(response.getHeaders().getETag()).isNotBlank();
+        }
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(imageRequests("/cover.jpg")).isEqualTo(1);
+    }
+
+    @Test
+    void revalidationWithTheContentHashAnswersNotModified() {
+        Long id = book(2, "/revalidated.jpg");
+        String etag = rest.getForEntity("/api/books/{id}/cover", byte[].class, id).getHeaders().getETag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<byte[]> revalidated = rest.exchange("/api/books/{id}/cover", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class, id);
+
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getBody()).isNull();
+    }
+
+    @Test
+    void identicalImagesAreStoredOnce() {
+        Long first = book(3, "/copy-a.jpg");
+        Long second = book(4, "/copy-b.jpg");
+
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, first).getBody()).isEqualTo(IMAGE);
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, second).getBody()).isEqualTo(IMAGE);
+        // Every cover served here has the same bytes, so there is one blob
+        assertThat(coverCacheService.getStoredBytes()).isEqualTo(IMAGE.length);
+    }
+
+    @Test
+    void createdBooksHaveTheirCoverFetchedInTheBackground() throws InterruptedException {
+        Long id = book(5, "/warm.jpg");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (imageRequests("/warm.jpg") == 0) {
+            assertThat(System.nanoTime()).as("cover warm-up").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, id).getBody()).isEqualTo(IMAGE);
+        assertThat(imageRequests("/warm.jpg")).isEqualTo(1);
+    }
+
+    @Test
+    void redirectsOffTheAllowListAreRefused() {
+        Long id = book(6, "/moved.jpg");
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, id).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_GATEWAY);
+    }
+
+    @Test
+    void nonImageAnswersAreRefused() {
+        Long id = book(7, "/page.html");
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, id).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_GATEWAY);
+    }
+
+    @Test
+    void booksWithoutAnAllowedCoverUrlAnswerNotFound() {
+        BookRequest request = new BookRequest();
+        request.setTitle("Elsewhere");
+        request.setGutenbergId(70_008);
+        request.setCoverUrl("https://images.example.com/cover.jpg");
+        Long id = bookService.addBook(request).getId();
+
+        assertThat(rest.getForEntity("/api/books/{id}/cover", byte[].class, id).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private Long book(int n, String coverPath) {
+        BookRequest request = new BookRequest();
+        request.setTitle("Cover " + n);
+        request.setAuthors(List.of("Illustrator " + n));
+        request.setGutenbergId(70_000 + n);
+        request.setCoverUrl("http://localhost:" + images.getAddress().getPort() + coverPath);
+        return bookService.addBook(request).getId();
+    }
+
+    private static int imageRequests(String path) {
+        AtomicInteger count = imageRequests.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("covers");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // /moved.jpg redirects to a host outside the allow-list, /page.html answers HTML, anything else the image
+    private static HttpServer startImageServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+            server.createContext("/", CoverProxyTest::serveImage);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void serveImage(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        imageRequests.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        switch (path) {
+            case "/moved.jpg" -> {
+                exchange.getResponseHeaders().set("Location", "http://images.example.com/cover.jpg");
+                exchange.sendResponseHeaders(302, -1);
+                exchange.close();
+                return;
+            }
+            case "/page.html" -> exchange.getResponseHeaders().set("Content-Type", "text/html");
+            default -> exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+        }
+        byte[] body = path.equals("/page.html") ? "<html></html>".getBytes(StandardCharsets.UTF_8) : IMAGE;
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
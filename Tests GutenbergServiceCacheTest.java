@@ -0,0 +1,116 @@
+package com.bookcatalog.service;
+
+import com.bookcatalog.model.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Search and book lookups against a stub gutendex: repeats are served from the cache, concurrent
+// misses share one upstream call, unknown IDs are cached and failures are not
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:gutenberg-cache;DB_CLOSE_DELAY=-1",
+        "gutenberg.http.retry.max-attempts=1",
+        "gutenberg.sync.cron=-",
+        "gutenberg.covers.warm-up=false"})
+class GutenbergServiceCacheTest {
+
+    private static final GutendexStub gutendex = GutendexStub.start();
+
+    @DynamicPropertySource
+    static void gutendexUrl(DynamicPropertyRegistry registry) {
+        registry.add("gutenberg.api.base-url", gutendex::baseUrl);
+    }
+
+    @AfterAll
+    static void stopGutendex() {
+        gutendex.close();
+    }
+
+    @Autowired
+    private GutenbergService gutenbergService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedSearchesAreServedFromTheCache() {
+        List<Book> first = gutenbergService.searchBooksFromGutenberg("Pride", null, null, null);
+        // Same key once trimmed and lowercased
+        List<Book> second = gutenbergService.searchBooksFromGutenberg(" pride ", null, null, null);
+
+        assertThat(second).extracting(Book::getGutenbergId)
+                .containsExactlyElementsOf(first.stream().map(Book::getGutenbergId).toList());
+        assertThat(gutendex.requests("/books?search=Pride")).isEqualTo(1);
+        assertThat(gutendex.requests("/books?search=pride")).isZero();
+        assertThat(cacheGets("gutenberg-search", "hit")).isPositive();
+        assertThat(cacheGets("gutenberg-search", "miss")).isPositive();
+    }
+
+    @Test
+    void concurrentMissesShareOneUpstreamCall() throws Exception {
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        gutendex.setDelay(Duration.ofMillis(300));
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Optional<Book>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return gutenbergService.getBookFromGutenberg(1342);
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<Book>> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS))
+                        .hasValueSatisfying(book -> assertThat(book.getTitle()).isEqualTo("Book 1342"));
+            }
+        } finally {
+            gutendex.setDelay(Duration.ZERO);
+            pool.shutdownNow();
+        }
+
+        assertThat(gutendex.requests("/books/1342")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.coalesced").tag("cache", "gutenberg-book")
+                .functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void unknownIdsAreCachedAsNotFound() {
+        int unknown = GutendexStub.UNKNOWN_IDS + 1;
+        assertThat(gutenbergService.getBookFromGutenberg(unknown)).isEmpty();
+        assertThat(gutenbergService.getBookFromGutenberg(unknown)).isEmpty();
+        assertThat(gutendex.requests("/books/" + unknown)).isEqualTo(1);
+    }
+
+    @Test
+    void failedLookupsAreNotCached() {
+        int failing = GutendexStub.FAILING_IDS + 1;
+        assertThatThrownBy(() -> gutenbergService.getBookFromGutenberg(failing))
+                .isInstanceOf(GutendexUnavailableException.class);
+        assertThatThrownBy(() -> gutenbergService.getBookFromGutenberg(failing))
+                .isInstanceOf(GutendexUnavailableException.class);
+        assertThat(gutendex.requests("/books/" + failing)).isEqualTo(2);
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result)
+                .functionCounter().count();
+    }
+}
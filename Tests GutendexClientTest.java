@@ -0,0 +1,110 @@
+package com.bookcatalog.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Retries, the per-call deadline and the circuit breaker against a stub gutendex. Every test builds
+// its own client, so each starts with a closed breaker and empty meters.
+class GutendexClientTest {
+
+    private static final GutendexStub gutendex = GutendexStub.start();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void resetDelay() {
+        gutendex.setDelay(Duration.ZERO);
+    }
+
+    @AfterAll
+    static void stopGutendex() {
+        gutendex.close();
+    }
+
+    @Test
+    void failedAttemptsAreRetriedUpToMaxAttempts() {
+        GutendexClient client = client(3, Duration.ofSeconds(12), 100, Duration.ofSeconds(30));
+        int failing = GutendexStub.FAILING_IDS + 11;
+
+        assertThatThrownBy(() -> client.get(url(failing), String.class))
+                .isInstanceOf(GutendexUnavailableException.class);
+
+        assertThat(gutendex.requests("/books/" + failing)).isEqualTo(3);
+        assertThat(meterRegistry.get("gutendex.retries").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("gutendex.requests").tag("status", "503").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesStopWhenTheNextAttemptCouldOutlastTheDeadline() {
+        // An attempt may take 800 ms (connect plus read timeout) and the stub answers after 300 ms:
+        // after the first failure 1100 ms fit into the 1250 ms deadline, after the second 1400 ms do not
+        gutendex.setDelay(Duration.ofMillis(300));
+        GutendexClient client = new GutendexClient(new RestTemplate(), meterRegistry, 10,
+                Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMillis(1250),
+                Duration.ofMillis(100), Duration.ofMillis(700), 100, Duration.ofSeconds(30));
+        int failing = GutendexStub.FAILING_IDS + 12;
+
+        assertThatThrownBy(() -> client.get(url(failing), String.class))
+                .isInstanceOf(GutendexUnavailableException.class);
+
+        assertThat(gutendex.requests("/books/" + failing)).isEqualTo(2);
+        assertThat(meterRegistry.get("gutendex.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void openBreakerRejectsCallsWithoutContactingGutendex() {
+        GutendexClient client = client(1, Duration.ofSeconds(12), 3, Duration.ofMinutes(1));
+        int failing = GutendexStub.FAILING_IDS + 13;
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.get(url(failing), String.class))
+                    .isInstanceOf(GutendexUnavailableException.class);
+        }
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> client.get(url(1), String.class))
+                .isInstanceOfSatisfying(GutendexUnavailableException.class,
+                        e -> assertThat(e.getRetryAfter()).isPositive());
+
+        assertThat(gutendex.requests("/books/" + failing)).isEqualTo(3);
+        assertThat(gutendex.requests("/books/1")).isZero();
+        assertThat(meterRegistry.get("gutendex.circuit.rejections").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void successfulProbeClosesTheBreaker() throws InterruptedException {
+        GutendexClient client = client(1, Duration.ofSeconds(12), 1, Duration.ofMillis(200));
+        assertThatThrownBy(() -> client.get(url(GutendexStub.FAILING_IDS + 14), String.class))
+                .isInstanceOf(GutendexUnavailableException.class);
+        assertThatThrownBy(() -> client.get(url(2), String.class))
+                .isInstanceOf(GutendexUnavailableException.class);
+        assertThat(gutendex.requests("/books/2")).isZero();
+
+        Thread.sleep(250);
+        assertThat(client.get(url(2), String.class)).contains("\"id\":2");
+
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(client.get(url(2), String.class)).contains("\"id\":2");
+        assertThat(gutendex.requests("/books/2")).isEqualTo(2);
+    }
+
+    // Millisecond backoffs keep the retries fast
+    private GutendexClient client(int maxAttempts, Duration callDeadline, int failureThreshold,
+                                  Duration openDuration) {
+        return new GutendexClient(new RestTemplate(), meterRegistry, maxAttempts,
+                Duration.ofMillis(1), Duration.ofMillis(5), callDeadline,
+                Duration.ofSeconds(2), Duration.ofSeconds(5), failureThreshold, openDuration);
+    }
+
+    private static String url(int id) {
+        return gutendex.baseUrl() + "/" + id;
+    }
+}
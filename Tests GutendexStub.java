@@ -0,0 +1,112 @@
+package com.bookcatalog.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for gutendex. /books?... answers a page holding one book derived from the query,
+// /books/{id} answers that book, 503 for IDs from FAILING_IDS and 404 from UNKNOWN_IDS on.
+// Requests are counted per path and query, and every answer can be delayed.
+public class GutendexStub implements AutoCloseable {
+
+    public static final int FAILING_IDS = 800_000;
+    public static final int UNKNOWN_IDS = 900_000;
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private volatile Duration delay = Duration.ZERO;
+
+    private GutendexStub() throws IOException {
+        // Large backlog so load tests opening hundreds of connections at once are not refused
+        server = HttpServer.create(new InetSocketAddress(0), 1000);
+        server.createContext("/books", this::handle);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    public static GutendexStub start() {
+        try {
+            return new GutendexStub();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/books";
+    }
+
+    public void setDelay(Duration delay) {
+        this.delay = delay;
+    }
+
+    // Requests received for a path and raw query, e.g. "/books/1342" or "/books?search=dickens"
+    public int requests(String pathAndQuery) {
+        AtomicInteger count = requests.get(pathAndQuery);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String path = uri.getRawPath().replaceAll("/+$", "");
+        requests.computeIfAbsent(uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path,
+                key -> new AtomicInteger()).incrementAndGet();
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int status = 200;
+        String body;
+        if (path.equals("/books")) {
+            int id = 1 + Math.floorMod(String.valueOf(uri.getRawQuery()).hashCode(), FAILING_IDS - 1);
+            body = "{\"count\":1,\"next\":null,\"results\":[" + book(id) + "]}";
+        } else {
+            int id = Integer.parseInt(path.substring("/books/".length()));
+            if (id >= UNKNOWN_IDS) {
+                status = 404;
+                body = "{\"detail\":\"Not found.\"}";
+            } else if (id >= FAILING_IDS) {
+                status = 503;
+                body = "{\"detail\":\"Service unavailable.\"}";
+            } else {
+                body = book(id);
+            }
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static String book(int id) {
+        return """
+                {"id":%d,"title":"Book %d","authors":[{"name":"Author %d"}],"subjects":["Subject %d"],\
+                "bookshelves":["Shelf"],"languages":["en"],"media_type":"Text","download_count":%d,\
+                "formats":{"image/jpeg":"https://www.gutenberg.org/cache/epub/%d/pg%d.cover.medium.jpg"}}"""
+                .formatted(id, id, id, id, id, id, id);
+    }
+}
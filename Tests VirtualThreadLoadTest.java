@@ -0,0 +1,108 @@
+package com.bookcatalog.config;
+
+import com.bookcatalog.service.GutendexStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Request handling on virtual threads (Java 21, -Pjava21). With 16 platform request threads, 400
+// concurrent searches against a gutendex answering after 250 ms would take 25 rounds, over 6 s for the
+// last; on virtual threads they all wait on the upstream at once. DB-bound requests queue for the
+// bounded DataSource instead of timing out in the pool.
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=250",
+        "server.tomcat.threads.max=16",
+        "server.tomcat.accept-count=1000",
+        "app.rate-limit.enabled=false",
+        "gutenberg.http.retry.max-attempts=1",
+        "gutenberg.sync.cron=-",
+        "gutenberg.covers.warm-up=false"})
+class VirtualThreadLoadTest {
+
+    private static final int CONCURRENCY = 400;
+    private static final Duration UPSTREAM_DELAY = Duration.ofMillis(250);
+
+    private static final GutendexStub gutendex = GutendexStub.start();
+
+    @DynamicPropertySource
+    static void gutendexUrl(DynamicPropertyRegistry registry) {
+        registry.add("gutenberg.api.base-url", gutendex::baseUrl);
+    }
+
+    @AfterAll
+    static void stopGutendex() {
+        gutendex.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void slowUpstreamDoesNotLimitConcurrentRequests() {
+        gutendex.setDelay(UPSTREAM_DELAY);
+        try {
+            // Distinct queries, so none is answered from the search cache
+            List<Long> latencies = fire(i -> "/api/books/gutenberg/search?query=load" + i);
+            assertThat(percentile(latencies, 0.99)).isLessThan(Duration.ofSeconds(2).toNanos());
+        } finally {
+            gutendex.setDelay(Duration.ZERO);
+        }
+    }
+
+    @Test
+    void databaseRequestsWaitForTheBoundedPool() {
+        // 400 virtual threads share 4 connections; Hikari alone would time out after 250 ms
+        fire(i -> "/api/books?limit=20&after=" + i);
+    }
+
+    // Sends all requests at once and returns their latencies, asserting every one answered 200
+    private List<Long> fire(IntFunction<String> path) {
+        List<CompletableFuture<Long>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.apply(i)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(response -> {
+                        assertThat(response.statusCode()).as(request.uri().toString()).isEqualTo(200);
+                        return System.nanoTime() - start;
+                    }));
+        }
+        return responses.stream()
+                .map(response -> response.orTimeout(60, TimeUnit.SECONDS).join())
+                .toList();
+    }
+
+    private static long percentile(List<Long> values, double percentile) {
+        List<Long> sorted = values.stream().sorted().toList();
+        return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+}